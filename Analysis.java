@@ -0,0 +1,129 @@
+
+/**
+ *  The scores of every column of a position, returned by BoardSolver.analyze()
+ *
+ *  A full analysis has the exact score of every legal column. A best move only analysis has the exact
+ *  score of the best column, while the other columns may only have an upper bound that shows they are
+ *  no better, which is far cheaper to prove
+ *
+ *  @author Neil Kakhandiki
+ *  @version October 18, 2026
+ */
+public class Analysis
+{
+    public static final int ILLEGAL = Integer.MIN_VALUE;
+
+    private int[] scores;
+    private boolean[] exact;
+    private int bestCol;
+
+    /**
+     * Create a new Analysis object and finds the best column, preferring the first in order on a tie
+     * @param scores of each column, or ILLEGAL if the column is full
+     * @param exact boolean of each column if its score is exact rather than an upper bound
+     * @param order of columns to prefer
+     */
+    Analysis(int[] scores, boolean[] exact, int[] order)
+    {
+        this.scores = scores;
+        this.exact = exact;
+        bestCol = -1;
+        for (int col : order)
+        {
+            if (scores[col] != ILLEGAL && (bestCol < 0 || scores[col] > scores[bestCol]))
+            {
+                bestCol = col;
+            }
+        }
+    }
+
+    /**
+     * Gets the score of a column
+     * @param col to get the score of
+     * @return the score, an upper bound if isExact() is false, or ILLEGAL if the column is full
+     */
+    public int getScore(int col)
+    {
+        return scores[col];
+    }
+
+    /**
+     * Gets the scores of every column
+     * @return a copy of the scores, with ILLEGAL for full columns
+     */
+    public int[] getScores()
+    {
+        return scores.clone();
+    }
+
+    /**
+     * Checks if the score of a column is exact
+     * @param col to check
+     * @return boolean if the score is exact rather than an upper bound
+     */
+    public boolean isExact(int col)
+    {
+        return exact[col];
+    }
+
+    /**
+     * Checks if a column can be played
+     * @param col to check
+     * @return boolean if the column is not full
+     */
+    public boolean isLegal(int col)
+    {
+        return scores[col] != ILLEGAL;
+    }
+
+    /**
+     * Gets the best column to play
+     * @return the best column, or -1 if the board is full
+     */
+    public int getBestCol()
+    {
+        return bestCol;
+    }
+
+    /**
+     * Gets the exact score of the best column
+     * @return the best score, or ILLEGAL if the board is full
+     */
+    public int getBestScore()
+    {
+        if (bestCol < 0)
+        {
+            return ILLEGAL;
+        }
+        return scores[bestCol];
+    }
+
+    /**
+     * Returns the scores as one line, with "<=" before upper bounds and "-" for full columns
+     * @return the scores of columns 1 to 7
+     */
+    public String toString()
+    {
+        StringBuilder result = new StringBuilder();
+        for (int col = 0; col < scores.length; col++)
+        {
+            if (col > 0)
+            {
+                result.append(' ');
+            }
+            if (scores[col] == ILLEGAL)
+            {
+                result.append('-');
+            }
+            else
+            {
+                if (!exact[col])
+                {
+                    result.append("<=");
+                }
+                result.append(scores[col]);
+            }
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,198 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ *  Solves a stream of positions without a board or GUI, one position per line as a move string
+ *
+ *  Positions are read from a file or standard input and solved by a pool of workers, each keeping
+ *  its own BoardSolver and transposition table between positions. Results are written in input order
+ *  as "position score nodes micros". Only a few positions per worker are in flight at once, so memory
+ *  stays bounded however long the input is. A position file ending in .bin is memory mapped and its
+ *  positions are read without parsing, and are written as their keys. Run with -Dconnect4.moves=true to
+ *  write them as move strings instead, which searches for an order of moves reaching each one
+ *
+ *  @author Neil Kakhandiki
+ *  @version October 18, 2026
+ */
+public class BatchSolver
+{
+    public static final int IN_FLIGHT_PER_WORKER = 4;
+
+    private static final boolean KEYS_AS_MOVES = Boolean.getBoolean("connect4.moves");
+
+    /**
+     * Solves every position in the input
+     * @param args input file, position file or "-" for standard input, then optionally threads and megabytes
+     * per worker
+     * @throws IOException if the input cannot be read
+     * @throws InterruptedException if interrupted while waiting for a result
+     */
+    public static void main(String args[]) throws IOException, InterruptedException
+    {
+        String input = "-";
+        int threads = Runtime.getRuntime().availableProcessors();
+        int megabytes = TranspositionTable.DEFAULT_MEGABYTES;
+        if (args.length > 0)
+        {
+            input = args[0];
+        }
+        if (args.length > 1)
+        {
+            threads = Integer.parseInt(args[1]);
+        }
+        if (args.length > 2)
+        {
+            megabytes = Integer.parseInt(args[2]);
+        }
+
+        PrintWriter writer = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out)));
+
+        int tableSize = megabytes;
+        ThreadLocal<BoardSolver> solvers = ThreadLocal.withInitial(() -> new BoardSolver(tableSize));
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        ArrayDeque<Future<String>> results = new ArrayDeque<Future<String>>();
+        int window = threads * IN_FLIGHT_PER_WORKER;
+        long count = 0;
+        long start = System.nanoTime();
+
+        try
+        {
+            if (PositionFile.isPositionFile(input))
+            {
+                PositionFile file = PositionFile.open(Paths.get(input));
+                for (int i = 0; i < file.size(); i++)
+                {
+                    long key = file.getKey(i);
+                    results.add(pool.submit(() -> solve(solvers.get(), key)));
+                    count++;
+                    if (results.size() >= window)
+                    {
+                        writer.println(take(results));
+                    }
+                }
+            }
+            else
+            {
+                BufferedReader reader = null;
+                if (input.equals("-"))
+                {
+                    reader = new BufferedReader(new InputStreamReader(System.in));
+                }
+                else
+                {
+                    reader = new BufferedReader(new FileReader(input));
+                }
+                String line = reader.readLine();
+                while (line != null)
+                {
+                    String moves = line.trim();
+                    if (!moves.isEmpty())
+                    {
+                        results.add(pool.submit(() -> solve(solvers.get(), moves)));
+                        count++;
+                        if (results.size() >= window)
+                        {
+                            writer.println(take(results));
+                        }
+                    }
+                    line = reader.readLine();
+                }
+                reader.close();
+            }
+            while (!results.isEmpty())
+            {
+                writer.println(take(results));
+            }
+            writer.flush();
+        }
+        finally
+        {
+            pool.shutdownNow(); // stops the workers even if a position failed and left solves queued
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.println(String.format("%d positions in %.3f s (%.1f positions/s) with %d threads",
+            count, seconds, count / seconds, threads));
+    }
+
+    /**
+     * Waits for the oldest result so output stays in input order
+     * @param results in input order
+     * @return the oldest result line
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private static String take(ArrayDeque<Future<String>> results) throws InterruptedException
+    {
+        try
+        {
+            return results.poll().get();
+        }
+        catch (ExecutionException e)
+        {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Solves one position and formats the result line
+     * @param solver of the worker thread
+     * @param moves columns numbered 1 to 7
+     * @return "position score nodes micros", or "position invalid" if the moves cannot all be played
+     */
+    private static String solve(BoardSolver solver, String moves)
+    {
+        Position position = new Position();
+        if (position.play(moves) != moves.length())
+        {
+            return moves + " invalid";
+        }
+        solver.resetNodeCount();
+        long start = System.nanoTime();
+        int score = solver.nullWindowSearch(position);
+        long micros = (System.nanoTime() - start) / 1000;
+        return moves + " " + score + " " + solver.getNodeCount() + " " + micros;
+    }
+
+    /**
+     * Solves one position of a position file and formats the result line
+     * @param solver of the worker thread
+     * @param key of the position
+     * @return "position score nodes micros", with the position as its key, or as moves if KEYS_AS_MOVES and
+     * an order reaching it is found, or "key invalid" if the key is not a position or either side has won
+     */
+    private static String solve(BoardSolver solver, long key)
+    {
+        Position position = new Position();
+        try
+        {
+            PositionCodec.fromKey(key, position);
+        }
+        catch (IllegalArgumentException e)
+        {
+            return key + " invalid";
+        }
+        long current = position.getPosition();
+        if (Position.alignment(current) || Position.alignment(current ^ position.getMask()))
+        {
+            return key + " invalid"; // the game is already over, as a move string reaching it is invalid
+        }
+        solver.resetNodeCount();
+        long start = System.nanoTime();
+        int score = solver.nullWindowSearch(position);
+        long micros = (System.nanoTime() - start) / 1000;
+        String moves = KEYS_AS_MOVES ? PositionCodec.keyToMoves(key) : null;
+        return (moves == null ? String.valueOf(key) : moves) + " " + score + " " + solver.getNodeCount() + " "
+            + micros;
+    }
+}
@@ -0,0 +1,370 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ *  Measures the engine on fixed inputs so results can be compared between commits
+ *
+ *  Each benchmark prints one line of name, value and unit. Move make/undo, win detection and the
+ *  transposition table are timed in nanoseconds per operation over random positions from a fixed seed,
+ *  as is reading positions from a memory-mapped position file.
+ *  Full solves run over end-game, middle-game and early-game positions with known scores, starting
+ *  from an empty table each time, and report nodes per position, mean solve time and nodes per second.
+ *  Node counts do not depend on the machine, so they are the first thing to compare
+ *  This runner needs no build tool and is for quick comparisons. The JMH benchmarks in jmh/, built with
+ *  "mvn -B -Pjmh package", measure the same operations with forks, warmup and blackholes
+ *
+ *  @author Neil Kakhandiki
+ *  @version October 18, 2026
+ */
+public class Benchmark
+{
+    public static final String[] END_GAME = {
+        "745714127452411775141274555323 -2",
+        "552661712562244355547744722667 2",
+        "356312747323744121666457341146 1",
+        "722636512165113233351273126664 2",
+        "216676746544672226317123174241 2",
+        "514727533614141531172372732743 2",
+        "334565566133432664477565 -1",
+        "512254142731236265725745 0"
+    };
+    public static final String[] MIDDLE_GAME = {
+        "32353335552754117572 2",
+        "65511427413357275315 0",
+        "73775443271247137656 1",
+        "1734113154524417 3",
+        "2211546162666776 -3",
+        "7474744766423236 -4",
+        "1224335541646713 -3"
+    };
+    public static final String[] EARLY_GAME = {
+        "265765217225 3",
+        "456333266342 -2",
+        "637645354453 0",
+        "252323357312 -4",
+        "6155546756 2",
+        "3637762472 -2"
+    };
+    public static final long SEED = 20210513L;
+
+    private static long sink; // keeps results alive so the JIT cannot remove the measured work
+
+    /**
+     * Runs every benchmark
+     * @param args optionally the number of measured iterations, then the tiers to solve
+     */
+    public static void main(String args[])
+    {
+        int iterations = 5;
+        if (args.length > 0)
+        {
+            iterations = Integer.parseInt(args[0]);
+        }
+        boolean allTiers = args.length < 2;
+
+        System.out.println(String.format("%-28s %14s  %s", "benchmark", "value", "unit"));
+        benchMakeUndo(iterations);
+        benchWinDetection(iterations);
+        benchTable(iterations);
+        benchPositionFile(iterations);
+
+        BoardSolver solver = new BoardSolver();
+        if (allTiers || contains(args, "end"))
+        {
+            benchSolve("end-game", END_GAME, solver, iterations);
+        }
+        if (allTiers || contains(args, "middle"))
+        {
+            benchSolve("middle-game", MIDDLE_GAME, solver, iterations);
+        }
+        if (allTiers || contains(args, "early"))
+        {
+            benchSolve("early-game", EARLY_GAME, solver, iterations);
+        }
+        if (sink == 42)
+        {
+            System.out.println();
+        }
+    }
+
+    /**
+     * Checks if an argument after the iteration count matches a value
+     * @param args command line arguments
+     * @param value to find
+     * @return boolean if the value is one of the arguments
+     */
+    private static boolean contains(String args[], String value)
+    {
+        for (int i = 1; i < args.length; i++)
+        {
+            if (args[i].equals(value))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Prints one benchmark result
+     * @param name of the benchmark
+     * @param value measured
+     * @param unit of the value
+     */
+    private static void report(String name, double value, String unit)
+    {
+        System.out.println(String.format("%-28s %14.3f  %s", name, value, unit));
+    }
+
+    /**
+     * Plays random games to the end and returns their columns
+     * @param count number of games
+     * @return the columns of each game
+     */
+    public static int[][] randomGames(int count)
+    {
+        Random random = new Random(SEED);
+        int[][] games = new int[count][];
+        Position position = new Position();
+        for (int g = 0; g < count; g++)
+        {
+            position.reset();
+            int[] cols = new int[Position.AREA];
+            int length = 0;
+            while (!position.isFull())
+            {
+                int col = random.nextInt(Position.COLS);
+                if (position.canPlay(col))
+                {
+                    position.play(col);
+                    cols[length++] = col;
+                }
+            }
+            games[g] = cols;
+        }
+        return games;
+    }
+
+    /**
+     * Times playing every move of random games and undoing them
+     * @param iterations measured rounds
+     */
+    private static void benchMakeUndo(int iterations)
+    {
+        int[][] games = randomGames(1000);
+        Position position = new Position();
+        double best = Double.MAX_VALUE;
+        for (int round = -iterations; round < iterations; round++) // the first half warms up
+        {
+            long start = System.nanoTime();
+            long operations = 0;
+            for (int repeat = 0; repeat < 20; repeat++)
+            {
+                for (int[] game : games)
+                {
+                    for (int col : game)
+                    {
+                        position.play(col);
+                    }
+                    sink += position.getKey();
+                    for (int i = 0; i < game.length; i++)
+                    {
+                        position.undo();
+                    }
+                    operations += 2 * game.length;
+                }
+            }
+            if (round >= 0)
+            {
+                best = Math.min(best, (double) (System.nanoTime() - start) / operations);
+            }
+        }
+        report("move.make-undo", best, "ns/op");
+    }
+
+    /**
+     * Times win detection on the positions reached during random games
+     * @param iterations measured rounds
+     */
+    private static void benchWinDetection(int iterations)
+    {
+        int[][] games = randomGames(200);
+        long[] positions = new long[games.length * Position.AREA];
+        long[] masks = new long[positions.length];
+        Position position = new Position();
+        int count = 0;
+        for (int[] game : games)
+        {
+            position.reset();
+            for (int col : game)
+            {
+                position.play(col);
+                positions[count] = position.getPosition();
+                masks[count] = position.getMask();
+                count++;
+            }
+        }
+
+        double bestAlignment = Double.MAX_VALUE;
+        double bestWinning = Double.MAX_VALUE;
+        for (int round = -iterations; round < iterations; round++)
+        {
+            long start = System.nanoTime();
+            for (int repeat = 0; repeat < 100; repeat++)
+            {
+                for (int i = 0; i < count; i++)
+                {
+                    if (Position.alignment(positions[i]))
+                    {
+                        sink++;
+                    }
+                }
+            }
+            long middle = System.nanoTime();
+            for (int repeat = 0; repeat < 100; repeat++)
+            {
+                for (int i = 0; i < count; i++)
+                {
+                    sink += Position.computeWinningPosition(positions[i], masks[i]);
+                }
+            }
+            long end = System.nanoTime();
+            if (round >= 0)
+            {
+                bestAlignment = Math.min(bestAlignment, (double) (middle - start) / (100.0 * count));
+                bestWinning = Math.min(bestWinning, (double) (end - middle) / (100.0 * count));
+            }
+        }
+        report("win.alignment", bestAlignment, "ns/op");
+        report("win.winning-position", bestWinning, "ns/op");
+    }
+
+    /**
+     * Times storing and probing random keys in a default sized transposition table
+     * @param iterations measured rounds
+     */
+    private static void benchTable(int iterations)
+    {
+        Random random = new Random(SEED);
+        long[] keys = new long[1 << 20];
+        for (int i = 0; i < keys.length; i++)
+        {
+            keys[i] = random.nextLong() & ((1L << 49) - 1);
+        }
+        TranspositionTable table = new TranspositionTable();
+        double bestPut = Double.MAX_VALUE;
+        double bestGet = Double.MAX_VALUE;
+        for (int round = -iterations; round < iterations; round++)
+        {
+            long start = System.nanoTime();
+            for (int i = 0; i < keys.length; i++)
+            {
+                table.put(keys[i], TranspositionTable.EXACT, i % 37 - 18, i % 7, i % 20);
+            }
+            long middle = System.nanoTime();
+            for (int i = 0; i < keys.length; i++)
+            {
+                sink += table.get(keys[i]);
+            }
+            long end = System.nanoTime();
+            if (round >= 0)
+            {
+                bestPut = Math.min(bestPut, (double) (middle - start) / keys.length);
+                bestGet = Math.min(bestGet, (double) (end - middle) / keys.length);
+            }
+        }
+        report("table.store", bestPut, "ns/op");
+        report("table.probe", bestGet, "ns/op");
+    }
+
+    /**
+     * Times reading and decoding every position of random games from a temporary position file
+     * @param iterations measured rounds
+     */
+    private static void benchPositionFile(int iterations)
+    {
+        int[][] games = randomGames(20000);
+        long[] keys = new long[games.length * Position.AREA];
+        Position position = new Position();
+        int count = 0;
+        for (int[] game : games)
+        {
+            position.reset();
+            for (int col : game)
+            {
+                position.play(col);
+                keys[count++] = position.getKey();
+            }
+        }
+
+        double best = Double.MAX_VALUE;
+        try
+        {
+            Path temp = Files.createTempFile("positions", PositionFile.EXTENSION);
+            PositionFile.write(temp, keys, count);
+            PositionFile file = PositionFile.open(temp);
+            for (int round = -iterations; round < iterations; round++)
+            {
+                long start = System.nanoTime();
+                for (int i = 0; i < file.size(); i++)
+                {
+                    file.get(i, position);
+                    sink += position.getMask();
+                }
+                if (round >= 0)
+                {
+                    best = Math.min(best, (double) (System.nanoTime() - start) / file.size());
+                }
+            }
+            Files.delete(temp);
+        }
+        catch (IOException e)
+        {
+            System.out.println("Could not write position file: " + e.getMessage());
+            return;
+        }
+        report("positions.read", best, "ns/op");
+    }
+
+    /**
+     * Solves every position of a tier from an empty table and checks the scores
+     * @param tier name of the position set
+     * @param positions move sequences followed by their scores
+     * @param solver to solve with
+     * @param iterations measured rounds
+     */
+    private static void benchSolve(String tier, String[] positions, BoardSolver solver, int iterations)
+    {
+        long nodes = 0;
+        long time = 0;
+        int solves = 0;
+        for (int round = -1; round < iterations; round++) // one round warms up
+        {
+            for (String line : positions)
+            {
+                String[] parts = line.split(" ");
+                Position position = new Position();
+                position.play(parts[0]);
+                solver.reset();
+                long start = System.nanoTime();
+                int score = solver.nullWindowSearch(position);
+                long elapsed = System.nanoTime() - start;
+                if (score != Integer.parseInt(parts[1]))
+                {
+                    System.out.println("WRONG SCORE " + parts[0] + ": expected " + parts[1] + ", got " + score);
+                }
+                if (round >= 0)
+                {
+                    nodes += solver.getNodeCount();
+                    time += elapsed;
+                    solves++;
+                }
+            }
+        }
+        report("solve." + tier + ".nodes", (double) nodes / solves, "nodes/position");
+        report("solve." + tier + ".time", time / 1e6 / solves, "ms/position");
+        report("solve." + tier + ".rate", nodes / (time / 1e9) / 1e6, "Mnodes/s");
+    }
+}
@@ -1,59 +1,34 @@
 
-import java.awt.Color;
-import java.awt.Graphics;
-import javax.swing.JPanel;
-
 /**
- * Represents a Connect-4 board as a long in binary using bitwise operations to be more efficient
+ * Represents a Connect-4 board for the game, keeping its bits in a Position so moves and wins are
+ * bitwise operations. It is only the model of the game, and BoardView draws it
  *
  *  @author Neil Kakhandiki
  *  @version May 9, 2021
  */
-public class BitBoard extends JPanel
+public class BitBoard
 {
-    public static final int DIAMETER = 55;
-    public static final int WIDTH = DIAMETER * 14;
-    public static final int HEIGHT = DIAMETER * 13;
-    public static final Color BLUE = new Color(54, 101, 255);
-    public static final Color RED = new Color(232, 67, 67);
-    public static final Color YELLOW = new Color(255, 218, 54);
-
-    public static final int ROWS = 6;
-    public static final int COLS = 7;
-
-    private long[] xoboard;
-    private int[] height;
-    private int counter;
-    private int[] moves;
-
-    /**
-     * Creates a new BitBoard object with the following indices for a 64 bit long
-     *
-     *  6 13  20 27 34 41 48   55 62
-     * +---------------------+
-     * | 5 12 19 26 33 40 47 | 54 61
-     * | 4 11 18 25 32 39 46 | 53 60
-     * | 3 10 17 24 31 38 45 | 52 59
-     * | 2  9  16 23 30 37 44 | 51 58
-     * | 1  8  15 22 29 36 43 | 50 57 64
-     * | 0  7  14 21 28 35 42 | 49 56 63
-     * +---------------------+
-     *
-     * xoboard holds two long numbers which contain the position of all the x's and o's respectively
-     * height holds the index of each column where a piece can be played {0, 7, 14, 21, 28, 35, 42} initially
-     * counter is the curernt player
-     * moves holds the current moves as column in order
+    public static final int ROWS = Position.ROWS;
+    public static final int COLS = Position.COLS;
+
+    private Position position;
+
+    /**
+     * Creates a new BitBoard object holding an empty Position, whose class comment shows the bit layout
+     * position holds the pieces and the moves played, the search itself only uses Position
      */
     public BitBoard()
     {
-        xoboard = new long[2];
-        height = new int[COLS];
-        for (int col = 0; col < COLS; col++)
-        {
-            height[col] = col * COLS;
-        }
-        counter = 0;
-        moves = new int[42];
+        position = new Position();
+    }
+
+    /**
+     * Creates a copy of another BitBoard so it can be searched without changing the original
+     * @param other board to copy
+     */
+    public BitBoard(BitBoard other)
+    {
+        position = new Position(other.position);
     }
 
     /**
@@ -61,27 +36,26 @@ public class BitBoard extends JPanel
      */
     public void reset()
     {
-        xoboard[0] = 0B0L;
-        xoboard[1] = 0B0L;
-        for (int col = 0; col < COLS; col++)
-        {
-            height[col] = col * COLS;
-        }
-        counter = 0;
-        for (int i = 0; i < moves.length; i++)
-        {
-            moves[i] = 0;
-        }
+        position.reset();
+    }
+
+    /**
+     * Gets the Position this board draws
+     * @return the position
+     */
+    public Position getPosition()
+    {
+        return position;
     }
 
     /**
      * Gets the "x" or "o" board
      * @param x - 0 to get the "x" board or 1 to get "o" board
-     * @return the long representing the x's or o's from xoboard
+     * @return the long representing the x's or o's
      */
     public long getBoard(int x)
     {
-        return xoboard[x];
+        return position.getPlayerBoard(x);
     }
 
     /**
@@ -90,7 +64,7 @@ public class BitBoard extends JPanel
      */
     public int getTurn()
     {
-        if (counter % 2 == 0)
+        if (getCounter() % 2 == 0)
         {
             return 1;
         }
@@ -103,7 +77,7 @@ public class BitBoard extends JPanel
      */
     public int getCounter()
     {
-        return counter;
+        return position.getMoves();
     }
 
     /**
@@ -113,16 +87,26 @@ public class BitBoard extends JPanel
      */
     public boolean canMove(int col)
     {
-        return (height[col] < col * COLS + ROWS);
+        return position.canPlay(col);
     }
 
     /**
-     * Adds the current board + a mask of the board using XOR
+     * Adds the current board + a mask of the board
      * @return key for a hashtable with the board position
      */
     public long getKey()
     {
-        return getBoard(counter & 1) + (getBoard(0) ^ getBoard(1));
+        return position.getKey();
+    }
+
+    /**
+     * Gets the key of this board or of its mirror image, whichever is smaller, so a position and its
+     * mirror share one key
+     * @return the canonical key for the board position
+     */
+    public long getCanonicalKey()
+    {
+        return position.getCanonicalKey();
     }
 
     /**
@@ -131,14 +115,7 @@ public class BitBoard extends JPanel
      */
     public void makeMove(int col)
     {
-        long move = 0B1L << height[col]; // shifts 1 bit by the height[col] to place a piece
-        xoboard[counter & 1] ^= move; // places the piece using XOR on the correct bitboard
-        // adds one to the height to update the empty space
-        height[col]++;
-        // adds the col to the list of moves
-        moves[counter] = col;
-        // updates the counter and turn
-        counter++;
+        position.play(col);
     }
 
     /**
@@ -146,12 +123,7 @@ public class BitBoard extends JPanel
      */
     public void undoMove()
     {
-        // undoes each step in makeMove()
-        counter--;
-        int col = moves[counter];
-        height[col]--;
-        long move = 0B1L << height[col];
-        xoboard[counter & 1] ^= move;
+        position.undo();
     }
 
     /**
@@ -161,19 +133,7 @@ public class BitBoard extends JPanel
      */
     public boolean isWin(long board)
     {
-        // these directions represent the steps to be diagonal, horizontal, and vertical
-        int[] directions = {1, ROWS, ROWS + 1, ROWS + 2};
-        long tempBoard;
-        for (int direction : directions)
-        {
-            // shifts the board and overlays the board using &
-            tempBoard = board & (board >> direction);
-            if ((tempBoard & (tempBoard >> 2 * direction)) != 0)
-            {
-                return true;
-            }
-        }
-        return false;
+        return Position.alignment(board);
     }
 
     /**
@@ -182,74 +142,66 @@ public class BitBoard extends JPanel
      */
     public boolean isFull()
     {
-        return (counter >= ROWS * COLS);
+        return position.isFull();
     }
 
     /**
-     * Returns the string representation of the board by iterating through the "x" and "o" board
-     * @return a string representation of the connect-4 board
+     * Gets the number of pieces in a column
+     * @param col to count
+     * @return the height of the column
      */
-    public String toString()
+    public int getHeight(int col)
     {
-        String xBoard = Long.toBinaryString(getBoard(0));
-        String oBoard = Long.toBinaryString(getBoard(1));
-        xBoard = "0".repeat(64 - xBoard.length()) + xBoard;
-        oBoard = "0".repeat(64 - oBoard.length()) + oBoard;
-        String result = "";
-        for (int row = ROWS - 1; row >= 0; row--)
+        return Long.bitCount(position.getMask() & Position.columnMask(col));
+    }
+
+    /**
+     * Gets the player with a piece in a cell, reading the bit of the cell straight from the bitboards
+     * @param col of the cell
+     * @param row of the cell, counting from the bottom
+     * @return 0 for the first player, 1 for the second player, or -1 if the cell is empty
+     */
+    public int getCell(int col, int row)
+    {
+        long cell = Position.bottomMask(col) << row;
+        if ((getBoard(0) & cell) != 0)
         {
-            for (int col = 0; col < COLS; col++)
-            {
-                int index = 64 - 1 - row - (col * COLS);
-                if (xBoard.substring(index, index + 1).equals("1"))
-                {
-                    result += "x ";
-                }
-                else if (oBoard.substring(index, index + 1).equals("1"))
-                {
-                    result += "o ";
-                }
-                else
-                {
-                    result += "_ ";
-                }
-            }
-            result += "\n";
+            return 0;
+        }
+        if ((getBoard(1) & cell) != 0)
+        {
+            return 1;
         }
-        return result;
+        return -1;
     }
 
-    public void paintComponent(Graphics graphics)
+    /**
+     * Returns the string representation of the board by reading each cell of the "x" and "o" board
+     * @return a string representation of the connect-4 board
+     */
+    public String toString()
     {
-        super.paintComponent(graphics);
-
-        String xBoard = Long.toBinaryString(getBoard(0));
-        String oBoard = Long.toBinaryString(getBoard(1));
-        xBoard = "0".repeat(64 - xBoard.length()) + xBoard;
-        oBoard = "0".repeat(64 - oBoard.length()) + oBoard;
-
-        graphics.setColor(BLUE);
-        graphics.fillRect(DIAMETER, DIAMETER, DIAMETER * 12, DIAMETER * 21 / 2);
-
+        StringBuilder result = new StringBuilder((COLS * 2 + 1) * ROWS);
         for (int row = ROWS - 1; row >= 0; row--)
         {
             for (int col = 0; col < COLS; col++)
             {
-                int index = 64 - 1 - row - (col * COLS);
-                if (xBoard.substring(index, index + 1).equals("1"))
+                int player = getCell(col, row);
+                if (player == 0)
                 {
-                    graphics.setColor(RED);
+                    result.append("x ");
                 }
-                else if (oBoard.substring(index, index + 1).equals("1"))
+                else if (player == 1)
                 {
-                    graphics.setColor(YELLOW);
+                    result.append("o ");
                 }
                 else
                 {
-                    graphics.setColor(Color.WHITE);
+                    result.append("_ ");
                 }
-                graphics.fillOval(DIAMETER * 2 + (DIAMETER * 3 / 2 * col), DIAMETER * 2 + (DIAMETER * 3 / 2 * (ROWS - row - 1)), DIAMETER, DIAMETER);
             }
+            result.append('\n');
         }
+        return result.toString();
     }
 }
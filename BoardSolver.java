@@ -1,101 +1,624 @@
-
-import java.util.Objects;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import jdk.jfr.EventType;
 
 /**
  * Solves a Connect-4 Position using the negamax algorithm with alpha beta pruning and transposition tables
+ * With more than one thread, helper solvers search copies of the board at the same time and share the
+ * transposition table (Lazy SMP), so the main search finds more of its positions already solved
+ * Moves are searched best first: the move stored in the transposition table, then by the number of
+ * winning cells each move creates, then by the killer move that last caused a cutoff at the same depth
+ * At the root, each column after the first is only searched exactly if a null-window test shows it
+ * beats the best column so far, and analyze() returns the score of every column instead of printing it
+ * solveAsync() searches on a background thread with a time budget, so a GUI can keep painting while
+ * the computer thinks and can cancel the search when the game is reset
+ * In depth-limited mode, positions with more than a number of empty cells are not solved exactly but
+ * searched by a HeuristicSolver for a time budget, so a move is found quickly from any position
+ * ponder() searches the opponent's replies on the same background thread while they decide, so their
+ * positions are already in the transposition table, or already solved, when solveAsync() is called
+ * Each solve and each root column scored is a Java Flight Recorder event, and while tracing is on the
+ * search is sampled every TRACE_SAMPLE_NODES positions. Neither costs more than a flag check if off
  *
  *  @author Neil Kakhandiki
  *  @version May 13, 2021
  */
 public class BoardSolver
 {
-    public static final int ROWS = 6;
-    public static final int COLS = 7;
+    public static final int ROWS = Position.ROWS;
+    public static final int COLS = Position.COLS;
     public static final int[] MOVE_ORDER = {3, 4, 2, 5, 1, 6, 0};
-    public static final int EXACT = 1;
     public static final int LOWERBOUND = -(ROWS * COLS) / 2 + 3;
     public static final int UPPERBOUND = (ROWS * COLS + 1) / 2 - 3;
+    public static final long CHECKPOINT_MILLIS = 60000;
+    public static final String CHECKPOINT_PROPERTY = "connect4.checkpoint"; // the games save the table if true
+    public static final int NO_BOUND = Integer.MIN_VALUE;
+    public static final int EXACT_EMPTY = 20; // empty cells few enough to solve exactly in a few milliseconds
+    public static final int TRACE_SAMPLE_NODES = 1 << 16; // a power of 2
+
+    private static final EventType ROOT_MOVE = EventType.getEventType(RootMoveEvent.class); // checks it is on
+
+    private static volatile boolean tracing = Boolean.getBoolean("connect4.trace");
 
     private TranspositionTable transTable;
+    private long nodeCount;
+    private volatile boolean stopped;
+    private boolean nullWindow;
+    private boolean dynamicOrdering;
+    private int[][] sortedCols;
+    private long[][] sortedMoves;
+    private int[][] sortedScores;
+    private int[] killers;
+    private OpeningBook book;
+    private BoardSolver[] helpers;
+    private ExecutorService pool;
+    private Path checkpointFile;
+    private long checkpointMillis;
+    private int checkpointMinWork;
+    private ScheduledExecutorService checkpointTimer;
+    private Object checkpointLock; // held while a checkpoint is written, instead of the solver's lock
+    private long checkpointStores; // table stores at the last checkpoint, guarded by checkpointLock
+    private boolean verbose;
+    private boolean metrics;
+    private SolverStats stats;
+    private SolverStats lastStats;
+    private SolverStats totalStats;
+    private int rootMoves;
+    private int rootScore; // score of the best column of the last searchRoot(), or NO_BOUND
+    private ExecutorService searchThread;
+    private Object running; // the search that stop() can stop, or null
+    private boolean ownsTable;
+    private HeuristicSolver heuristic; // searches deep positions in depth-limited mode, or null
+    private long depthLimitMillis;
+    private int exactEmpty;
+    private Object pondering; // the ponder search that stopPondering() stops, or null
+    private ConcurrentHashMap<Long, Integer> ponderMoves; // best column of each reply solved while pondering
 
     /**
      * Create a new BoardSolver object with a transposition table
      */
     public BoardSolver()
     {
-        transTable = new TranspositionTable();
+        this(new TranspositionTable());
+        ownsTable = true;
+    }
+
+    /**
+     * Create a new BoardSolver object with a transposition table limited to a memory budget
+     * @param megabytes of memory for the transposition table
+     */
+    public BoardSolver(int megabytes)
+    {
+        this(new TranspositionTable(megabytes));
+        ownsTable = true;
+    }
+
+    /**
+     * Create a new BoardSolver object that uses a transposition table shared with other solvers
+     * Searches do not start a new generation of the table, which is left to the owner of the table
+     * @param transTable to store positions in
+     */
+    public BoardSolver(TranspositionTable transTable)
+    {
+        this.transTable = transTable;
+        helpers = new BoardSolver[0];
+        nullWindow = true;
+        dynamicOrdering = true;
+        sortedCols = new int[ROWS * COLS][COLS];
+        sortedMoves = new long[ROWS * COLS][COLS];
+        sortedScores = new int[ROWS * COLS][COLS];
+        killers = new int[ROWS * COLS];
+        Arrays.fill(killers, -1);
+        lastStats = new SolverStats();
+        totalStats = new SolverStats();
+        ponderMoves = new ConcurrentHashMap<Long, Integer>();
+        checkpointLock = new Object();
+        checkpointStores = -1;
+    }
+
+    /**
+     * Sets whether solve() prints the score of each column
+     * @param verbose boolean to print the scores
+     */
+    public void setVerbose(boolean verbose)
+    {
+        this.verbose = verbose;
+    }
+
+    /**
+     * Sets whether solve() collects statistics about the main search
+     * When it is off, the only cost left in negamax() is a null check
+     * @param metrics boolean to collect statistics
+     */
+    public void setMetrics(boolean metrics)
+    {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Gets the statistics of the last solve() with metrics on
+     * @return the statistics of the last solve
+     */
+    public SolverStats getLastStats()
+    {
+        return lastStats;
+    }
+
+    /**
+     * Gets the statistics of every solve() with metrics on, added together
+     * @return the total statistics
+     */
+    public SolverStats getTotalStats()
+    {
+        return totalStats;
+    }
+
+    /**
+     * Registers the total statistics with the platform MBean server so they can be read through JMX
+     * @param name to tell this solver apart from others
+     * @throws JMException if the statistics cannot be registered
+     */
+    public void registerMBean(String name) throws JMException
+    {
+        ObjectName objectName = new ObjectName("Connect4AI:type=SolverStats,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(totalStats, objectName);
+    }
+
+    /**
+     * Sets whether every solver samples its search as SearchTraceEvents, which can be switched while
+     * searches are running. It starts as the system property connect4.trace
+     * @param tracing boolean to sample the search
+     */
+    public static void setTracing(boolean tracing)
+    {
+        BoardSolver.tracing = tracing;
+    }
+
+    /**
+     * Checks if solvers sample their search as SearchTraceEvents
+     * @return boolean if tracing is on
+     */
+    public static boolean isTracing()
+    {
+        return tracing;
+    }
+
+    /**
+     * Sets whether negamax() sorts the moves of each position or searches them in MOVE_ORDER
+     * @param dynamicOrdering boolean to sort the moves
+     */
+    public void setDynamicOrdering(boolean dynamicOrdering)
+    {
+        this.dynamicOrdering = dynamicOrdering;
+        for (BoardSolver helper : helpers)
+        {
+            helper.dynamicOrdering = dynamicOrdering;
+        }
+    }
+
+    /**
+     * Sets whether solve() scores each column with a sequence of null-window searches or with one
+     * full-window search
+     * @param nullWindow boolean to use null-window searches
+     */
+    public void setNullWindow(boolean nullWindow)
+    {
+        this.nullWindow = nullWindow;
+        for (BoardSolver helper : helpers)
+        {
+            helper.nullWindow = nullWindow;
+        }
+    }
+
+    /**
+     * Sets the number of threads solve() uses, where every thread after the first is a helper
+     * searching its own copy of the board and sharing this solver's transposition table
+     * @param threads to search with, at least 1
+     */
+    public void setThreads(int threads)
+    {
+        if (threads < 1)
+        {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        if (pool != null)
+        {
+            pool.shutdown();
+            pool = null;
+        }
+        helpers = new BoardSolver[threads - 1];
+        for (int i = 0; i < helpers.length; i++)
+        {
+            helpers[i] = new BoardSolver(transTable);
+            helpers[i].nullWindow = nullWindow;
+            helpers[i].dynamicOrdering = dynamicOrdering;
+        }
+        if (helpers.length > 0)
+        {
+            pool = Executors.newFixedThreadPool(helpers.length, runnable -> {
+                Thread thread = new Thread(runnable, "solver-helper");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Sets depth-limited mode, where solve() only solves positions with at most EXACT_EMPTY empty cells
+     * exactly, and searches the rest with iterative deepening for a time budget
+     * @param budgetMillis most time to search a deep position for, or 0 to always solve exactly
+     */
+    public void setDepthLimited(long budgetMillis)
+    {
+        setDepthLimited(budgetMillis, EXACT_EMPTY);
+    }
+
+    /**
+     * Sets depth-limited mode, where solve() only solves positions with at most exactEmpty empty cells
+     * exactly, and searches the rest with iterative deepening for a time budget
+     * @param budgetMillis most time to search a deep position for, or 0 to always solve exactly
+     * @param exactEmpty most empty cells of a position that is solved exactly
+     */
+    public void setDepthLimited(long budgetMillis, int exactEmpty)
+    {
+        depthLimitMillis = budgetMillis;
+        this.exactEmpty = exactEmpty;
+        if (budgetMillis > 0 && heuristic == null)
+        {
+            heuristic = new HeuristicSolver(() -> stopped);
+        }
+    }
+
+    /**
+     * Checks if solve() searches a position with iterative deepening instead of solving it exactly
+     * @param position of the board
+     * @return boolean if depth-limited mode is set and the position has more than its empty cells
+     */
+    public boolean isDepthLimited(Position position)
+    {
+        return depthLimitMillis > 0 && ROWS * COLS - position.getMoves() > exactEmpty;
+    }
+
+    /**
+     * Sets the opening book solve() answers from before searching
+     * @param book of solved positions, or null for no book
+     */
+    public void setBook(OpeningBook book)
+    {
+        this.book = book;
+    }
+
+    /**
+     * Gets the opening book
+     * @return the opening book or null if there is no book
+     */
+    public OpeningBook getBook()
+    {
+        return book;
+    }
+
+    /**
+     * Adds the entries of a transposition table snapshot, so positions solved by an earlier run are not
+     * solved again
+     * @param file snapshot to load
+     * @return the number of entries loaded
+     * @throws IOException if the snapshot cannot be read
+     */
+    public int loadTable(Path file) throws IOException
+    {
+        return transTable.load(file);
+    }
+
+    /**
+     * Saves the transposition table entries that took at least minWork to find
+     * @param file snapshot to write
+     * @param minWork log2 of the fewest nodes an entry needs to be saved
+     * @return the number of entries saved
+     * @throws IOException if the snapshot cannot be written
+     */
+    public int saveTable(Path file, int minWork) throws IOException
+    {
+        return transTable.save(file, minWork);
+    }
+
+    /**
+     * Saves the transposition table every intervalMillis while solve() runs, and once more in the background
+     * when it returns. A snapshot is skipped if nothing was stored in the table since the last one
+     * @param file snapshot to write, or null to stop checkpointing
+     * @param intervalMillis time between snapshots
+     * @param minWork log2 of the fewest nodes an entry needs to be saved
+     */
+    public void setCheckpoint(Path file, long intervalMillis, int minWork)
+    {
+        checkpointFile = file;
+        checkpointMillis = intervalMillis;
+        checkpointMinWork = minWork;
+        if (file != null && checkpointTimer == null)
+        {
+            checkpointTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "solver-checkpoint");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Writes a checkpoint of the transposition table on the checkpoint thread, reporting instead of throwing
+     * on failure. It holds its own lock rather than the solver's, so stopping or starting a search never
+     * waits for the table to be written
+     */
+    private void checkpoint()
+    {
+        Path file = checkpointFile;
+        synchronized (checkpointLock)
+        {
+            long stores = transTable.getStores();
+            if (file == null || stores == checkpointStores)
+            {
+                return; // nothing new to save
+            }
+            try
+            {
+                saveTable(file, checkpointMinWork);
+                checkpointStores = stores;
+            }
+            catch (IOException e)
+            {
+                System.err.println("Could not save transposition table: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Waits for checkpoints already started in the background to be written, so a program can exit
+     * without losing the last one
+     */
+    public void awaitCheckpoint()
+    {
+        if (checkpointTimer == null)
+        {
+            return;
+        }
+        try
+        {
+            checkpointTimer.submit(() -> {}).get(); // runs after every checkpoint queued before it
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException e)
+        {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Checks if a board position is in the opening book
+     * @param position of the board
+     * @return boolean if the opening book has the position
+     */
+    public boolean isBookPosition(Position position)
+    {
+        return book != null && book.getMove(position) >= 0;
+    }
+
+    /**
+     * Gets the number of threads solve() uses
+     * @return the number of threads
+     */
+    public int getThreads()
+    {
+        return helpers.length + 1;
+    }
+
+    /**
+     * Gets the number of positions searched by this solver and its helpers
+     * @return the node count
+     */
+    public long getNodeCount()
+    {
+        long total = nodeCount;
+        for (BoardSolver helper : helpers)
+        {
+            total += helper.nodeCount;
+        }
+        return total;
+    }
+
+    /**
+     * Sets the node count of this solver and its helpers back to 0
+     */
+    public void resetNodeCount()
+    {
+        nodeCount = 0;
+        for (BoardSolver helper : helpers)
+        {
+            helper.nodeCount = 0;
+        }
+    }
+
+    /**
+     * Clears the transposition table, the killer moves and the node count, so the next search starts cold
+     */
+    public void reset()
+    {
+        transTable.reset();
+        Arrays.fill(killers, -1);
+        ponderMoves.clear();
+        resetNodeCount();
+        for (BoardSolver helper : helpers)
+        {
+            Arrays.fill(helper.killers, -1);
+        }
     }
 
     /**
      * Returns the score of a given board position using the negamax algorithm with alpha beta pruning and transposition tables
-     * @param board position
+     * @param position of the board
      * @param alpha lower bound
      * @param beta upper bound
      * @return the score of a board position
      */
-    public int negamax(BitBoard board, int alpha, int beta)
+    public int negamax(Position position, int alpha, int beta)
     {
-        int alphaOrig = alpha;
-        TTEntry ttEntry = transTable.getEntry(board.getKey()); // gets the ttEntry from the key of position
-        if (!Objects.isNull(ttEntry))
+        long nodesBefore = nodeCount;
+        nodeCount++;
+        if ((nodeCount & 1023) == 0)
         {
-            // sets alpha or beta to the lower bound or upper bound, or returns the value
-            if (ttEntry.getFlag() == EXACT)
+            if (stopped) // checks if the search was stopped or a helper is no longer needed
             {
-                return ttEntry.getValue();
+                throw new SearchAbortedException();
             }
-            else if (ttEntry.getFlag() == LOWERBOUND)
+            if (tracing && (nodeCount & (TRACE_SAMPLE_NODES - 1)) == 0)
             {
-                alpha = Math.max(alpha, ttEntry.getValue());
+                trace(position, alpha, beta);
             }
-            else if (ttEntry.getFlag() == UPPERBOUND)
+        }
+        if (stats != null)
+        {
+            stats.depthHistogram[position.getMoves() - rootMoves]++;
+        }
+
+        // checks if a player can win on next move
+        if (position.canWinNext())
+        {
+            return (ROWS * COLS +  1 - position.getMoves()) / 2; // 22 -  number of pieces played by the winning player
+        }
+
+        // only moves that do not give the opponent a win are searched
+        long next = position.possibleNonLosingMoves();
+        if (next == 0)
+        {
+            return -(ROWS * COLS - position.getMoves()) / 2; // the opponent wins on their next move
+        }
+
+        // checks for draw game, since neither player can win with the last two pieces
+        if (position.getMoves() >= ROWS * COLS - 2)
+        {
+            return 0;
+        }
+
+        // the opponent cannot win on their next move, so the score is at least min
+        int min = -(ROWS * COLS - 2 - position.getMoves()) / 2;
+        if (alpha < min)
+        {
+            alpha = min;
+            if (alpha >= beta) // pruning
             {
-                beta = Math.min(beta, ttEntry.getValue());
+                return alpha;
             }
+        }
 
+        // the current player cannot win on this move, so the score is at most max
+        int max = (ROWS * COLS - 1 - position.getMoves()) / 2;
+        if (beta > max)
+        {
+            beta = max;
             if (alpha >= beta) // pruning
             {
-                return ttEntry.getValue();
+                return beta;
             }
         }
 
-        // checks for draw game
-        if (board.isFull())
+        // a position and its mirror image share one entry, stored under the smaller key
+        long key = position.getKey();
+        long canonicalKey = position.getCanonicalKey();
+        boolean mirrored = key != canonicalKey;
+
+        int alphaOrig = alpha;
+        int ttMove = -1;
+        int ttEntry = transTable.get(canonicalKey); // gets the packed entry from the key of position
+        if (stats != null)
         {
-            return 0;
+            stats.probes++;
+            if (ttEntry != 0)
+            {
+                stats.hits++;
+            }
+            else if (transTable.isOccupied(canonicalKey))
+            {
+                stats.collisions++;
+            }
         }
-
-        // checks if a player can win on next move
-        int turn = 0;
-        for (int col = 0; col < COLS; col++)
+        if (ttEntry != 0)
         {
-            turn = board.getTurn() - 1;
-            if (board.canMove(col))
+            // sets alpha or beta to the lower bound or upper bound, or returns the value
+            int ttFlag = TranspositionTable.getFlag(ttEntry);
+            int ttValue = TranspositionTable.getValue(ttEntry);
+            ttMove = TranspositionTable.getMove(ttEntry);
+            if (mirrored && ttMove >= 0)
             {
-                board.makeMove(col);
-                if (board.isWin(board.getBoard(turn)))
-                {
-                    board.undoMove();
-                    return (ROWS * COLS +  1 - board.getCounter()) / 2; // 22 -  number of pieces played by the winning player
-                }
-                board.undoMove();
+                ttMove = COLS - 1 - ttMove;
+            }
+            if (ttFlag == TranspositionTable.EXACT)
+            {
+                return ttValue;
+            }
+            else if (ttFlag == TranspositionTable.LOWER)
+            {
+                alpha = Math.max(alpha, ttValue);
+            }
+            else if (ttFlag == TranspositionTable.UPPER)
+            {
+                beta = Math.min(beta, ttValue);
+            }
+
+            if (alpha >= beta) // pruning
+            {
+                return ttValue;
             }
         }
 
+        int ply = position.getMoves();
+        int[] cols = sortedCols[ply];
+        long[] moves = sortedMoves[ply];
+        int count = sortMoves(position, next, ttMove);
+        if (stats != null)
+        {
+            stats.expanded++;
+        }
+
         int score = Integer.MIN_VALUE;
+        int bestCol = -1;
         // compute the score of each position
-        for (int col : MOVE_ORDER)
+        for (int i = 0; i < count; i++)
         {
-            if (board.canMove(col))
+            position.play(moves[i]);
+            int childScore = -negamax(position, -beta, -alpha);
+            position.undo();
+            if (childScore > score)
+            {
+                score = childScore;
+                bestCol = cols[i];
+            }
+            alpha = Math.max(alpha, score);
+            if (alpha >= beta) // pruning
             {
-                board.makeMove(col);
-                score = Math.max(score, -negamax(board, -beta, -alpha));
-                board.undoMove();
-                alpha = Math.max(alpha, score);
-                if (alpha >= beta) // pruning
+                killers[ply] = Long.numberOfTrailingZeros(moves[i]); // remembers the cell that caused the cutoff
+                if (stats != null)
                 {
-                    break;
+                    stats.cutoffs++;
+                    if (i == 0)
+                    {
+                        stats.firstMoveCutoffs++;
+                    }
                 }
+                break;
             }
         }
 
@@ -103,54 +626,855 @@ public class BoardSolver
         int flag = 0;
         if (score <= alphaOrig)
         {
-            flag = UPPERBOUND;
+            flag = TranspositionTable.UPPER;
         }
         else if (score >= beta)
         {
-            flag = LOWERBOUND;
+            flag = TranspositionTable.LOWER;
         }
         else
         {
-            flag = EXACT;
+            flag = TranspositionTable.EXACT;
         }
 
-        transTable.put(board.getKey(), new TTEntry(flag, score)); // adds entry to hashtable
+        if (mirrored)
+        {
+            bestCol = COLS - 1 - bestCol;
+        }
+        int work = Long.SIZE - Long.numberOfLeadingZeros(nodeCount - nodesBefore); // log2 of the nodes searched
+        if (stats != null && transTable.isOccupied(canonicalKey))
+        {
+            stats.overwrites++;
+        }
+        transTable.put(canonicalKey, flag, score, bestCol, work); // adds entry to hashtable
         return score;
     }
 
     /**
-     * Returns the best column to play, by calling negamax() to get the score of each possible move played
-     * @param board position
-     * @return bestCol of position
+     * Records a sample of the search at a position as a SearchTraceEvent
+     * @param position being searched
+     * @param alpha lower bound
+     * @param beta upper bound
+     */
+    private void trace(Position position, int alpha, int beta)
+    {
+        SearchTraceEvent event = new SearchTraceEvent();
+        if (event.shouldCommit())
+        {
+            event.key = position.getKey();
+            event.depth = position.getMoves() - rootMoves;
+            event.alpha = alpha;
+            event.beta = beta;
+            event.nodes = nodeCount;
+            event.hitRate = stats == null ? -1 : stats.getHitRate();
+            event.cutoffRate = stats == null ? -1 : stats.getCutoffRate();
+            event.commit();
+        }
+    }
+
+    /**
+     * Sorts the moves of a position into sortedCols and sortedMoves for its ply, best first
+     * The transposition table move goes first, then moves are ranked by the winning cells they create,
+     * then the killer move. Ties keep MOVE_ORDER
+     * @param position of the board
+     * @param next bitmap of the moves to sort
+     * @param ttMove best column from the transposition table, or -1
+     * @return the number of moves
      */
-    public int solve(BitBoard board)
+    private int sortMoves(Position position, long next, int ttMove)
     {
-        System.out.println("----------------------");
-        int bestScore = Integer.MIN_VALUE;
-        int bestCol = 3;
-        int turn = 0;
+        int ply = position.getMoves();
+        int[] cols = sortedCols[ply];
+        long[] moves = sortedMoves[ply];
+        int[] scores = sortedScores[ply];
+        int count = 0;
         for (int col : MOVE_ORDER)
         {
-            turn = board.getTurn() - 1;
-            if (board.canMove(col))
+            long move = next & Position.columnMask(col);
+            if (move != 0)
             {
-                board.makeMove(col);
-                if (board.isWin(board.getBoard(turn)))
+                int score = 0;
+                if (dynamicOrdering)
                 {
-                    board.undoMove();
-                    return col;
+                    if (col == ttMove)
+                    {
+                        score = Integer.MAX_VALUE;
+                    }
+                    else
+                    {
+                        score = position.moveScore(move) * 2;
+                        if (Long.numberOfTrailingZeros(move) == killers[ply])
+                        {
+                            score++;
+                        }
+                    }
                 }
-                int score = -negamax(board, -UPPERBOUND, -LOWERBOUND);
-                System.out.println("Column " + (col + 1) + " score: " + score);
-                if (score > bestScore)
+                // insertion sort, placing the move after every move with an equal or higher score
+                int i = count;
+                while (i > 0 && scores[i - 1] < score)
                 {
-                    bestScore = score;
-                    bestCol = col;
+                    cols[i] = cols[i - 1];
+                    moves[i] = moves[i - 1];
+                    scores[i] = scores[i - 1];
+                    i--;
                 }
-                board.undoMove();
+                cols[i] = col;
+                moves[i] = move;
+                scores[i] = score;
+                count++;
             }
         }
-        System.out.println("----------------------");
-        return bestCol;
+        return count;
+    }
+
+    /**
+     * Returns the exact score of a board position by narrowing the score range with null-window calls
+     * to negamax(), which prune far more than one full-window call. Each call only answers if the score
+     * is above a guess, so the bounds it stores in the transposition table are reused by the next call
+     * @param position of the board
+     * @return the score of a board position
+     */
+    public int nullWindowSearch(Position position)
+    {
+        return nullWindowSearch(position, -(ROWS * COLS - position.getMoves()) / 2,
+            (ROWS * COLS + 1 - position.getMoves()) / 2);
+    }
+
+    /**
+     * Returns the exact score of a board position that is already known to be between min and max
+     * @param position of the board
+     * @param min lowest possible score
+     * @param max highest possible score
+     * @return the score of a board position
+     */
+    public int nullWindowSearch(Position position, int min, int max)
+    {
+        while (min < max)
+        {
+            int med = min + (max - min) / 2;
+            // moves the guess towards 0 because most positions are decided by a small margin
+            if (med <= 0 && min / 2 < med)
+            {
+                med = min / 2;
+            }
+            else if (med >= 0 && max / 2 > med)
+            {
+                med = max / 2;
+            }
+            int score = negamax(position, med, med + 1);
+            if (score <= med)
+            {
+                max = score;
+            }
+            else
+            {
+                min = score;
+            }
+        }
+        return min;
+    }
+
+    /**
+     * Returns the exact score of every legal column of a position
+     * @param position of the board
+     * @return the analysis of each column
+     */
+    public Analysis analyze(Position position)
+    {
+        return analyze(position, false);
+    }
+
+    /**
+     * Returns the score of every legal column of a position, or in best move only mode the exact score of
+     * the best column and an upper bound for the rest. With more than one thread, the main solver and its
+     * helpers each take the next column to search until every column is scored, sharing the best score
+     * so far as the bound in best move only mode
+     * @param position of the board
+     * @param bestOnly boolean if only the best column needs an exact score
+     * @return the analysis of each column
+     */
+    public Analysis analyze(Position position, boolean bestOnly)
+    {
+        int[] scores = new int[COLS];
+        boolean[] exact = new boolean[COLS];
+        Arrays.fill(scores, Analysis.ILLEGAL);
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger best = new AtomicInteger(NO_BOUND);
+        stopped = false;
+        if (ownsTable)
+        {
+            transTable.newSearch();
+        }
+
+        Future<?>[] futures = new Future<?>[helpers.length];
+        for (int i = 0; i < helpers.length; i++)
+        {
+            BoardSolver helper = helpers[i];
+            Position copy = new Position(position);
+            helper.stopped = false;
+            futures[i] = pool.submit(() -> helper.analyzeColumns(copy, bestOnly, next, best, scores, exact));
+        }
+        try
+        {
+            analyzeColumns(position, bestOnly, next, best, scores, exact);
+        }
+        finally
+        {
+            join(futures);
+        }
+        return new Analysis(scores, exact, MOVE_ORDER);
+    }
+
+    /**
+     * Scores columns in MOVE_ORDER, taking the next one not taken by another thread each time
+     * @param position of the board
+     * @param bestOnly boolean if only the best column needs an exact score
+     * @param next index in MOVE_ORDER of the next column to score
+     * @param best exact score of the best column so far
+     * @param scores of each column, filled in as they are found
+     * @param exact boolean of each column if its score is exact
+     */
+    private void analyzeColumns(Position position, boolean bestOnly, AtomicInteger next, AtomicInteger best,
+        int[] scores, boolean[] exact)
+    {
+        for (int i = next.getAndIncrement(); i < COLS; i = next.getAndIncrement())
+        {
+            int col = MOVE_ORDER[i];
+            if (position.canPlay(col))
+            {
+                int bound = NO_BOUND;
+                if (bestOnly)
+                {
+                    bound = best.get();
+                }
+                int score = scoreColumn(position, col, bound);
+                scores[col] = score;
+                exact[col] = score > bound;
+                if (exact[col])
+                {
+                    best.accumulateAndGet(score, Math::max);
+                }
+            }
+        }
+    }
+
+    /**
+     * Scores a playable column exactly if it is better than a bound, and otherwise only proves it is not
+     * with one null-window search, which is much cheaper
+     * @param position of the board, which is restored unless the search is stopped
+     * @param col to score
+     * @param bound score to beat, or NO_BOUND to always score exactly
+     * @return the exact score if it is above bound, otherwise an upper bound that is at most bound
+     */
+    private int scoreColumn(Position position, int col, int bound)
+    {
+        int moves = position.getMoves();
+        if (position.isWinningMove(col))
+        {
+            return (ROWS * COLS + 1 - moves) / 2;
+        }
+        int max = (ROWS * COLS - 1 - moves) / 2; // the best score after a move that does not win
+        if (bound >= max)
+        {
+            return max;
+        }
+        position.play(col);
+        int score = 0;
+        if (!nullWindow)
+        {
+            score = -negamax(position, -UPPERBOUND, -Math.max(bound, LOWERBOUND));
+        }
+        else if (bound == NO_BOUND)
+        {
+            score = -nullWindowSearch(position);
+        }
+        else
+        {
+            int value = negamax(position, -bound - 1, -bound); // tests if the column scores above bound
+            if (value >= -bound)
+            {
+                score = -value;
+            }
+            else
+            {
+                score = -nullWindowSearch(position, -(ROWS * COLS - moves - 1) / 2, value);
+            }
+        }
+        position.undo();
+        return score;
+    }
+
+    /**
+     * Waits for the searches of the helpers to finish
+     * @param futures of the helper searches
+     */
+    private static void join(Future<?>[] futures)
+    {
+        for (Future<?> future : futures)
+        {
+            try
+            {
+                future.get();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            catch (ExecutionException e)
+            {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Returns the best column to play, by calling negamax() to get the score of each possible move played
+     * With more than one thread, helpers search the same position with the root columns rotated
+     * until the main search finishes. Positions in the opening book or solved while pondering are
+     * answered without searching, and in depth-limited mode deep positions are searched with iterative
+     * deepening
+     * @param position of the board
+     * @return bestCol of position
+     */
+    public int solve(Position position)
+    {
+        SolveEvent event = new SolveEvent();
+        event.begin();
+        event.key = position.getKey();
+        event.moves = position.getMoves();
+        event.score = Integer.MIN_VALUE;
+        long startNodes = nodeCount;
+        int col = -1;
+        try
+        {
+            col = solve(position, event);
+            return col;
+        }
+        finally
+        {
+            event.end();
+            if (event.shouldCommit())
+            {
+                event.column = col;
+                event.stopped = stopped;
+                event.nodes = nodeCount - startNodes;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Returns the best column to play, filling in the mode, score and table counts of a SolveEvent
+     * @param position of the board
+     * @param event of the solve
+     * @return bestCol of position
+     */
+    private int solve(Position position, SolveEvent event)
+    {
+        if (book != null)
+        {
+            int bookCol = book.getMove(position);
+            if (bookCol >= 0)
+            {
+                event.mode = "book";
+                return bookCol;
+            }
+        }
+        Integer ponderCol = ponderMoves.get(position.getKey());
+        if (ponderCol != null)
+        {
+            if (verbose)
+            {
+                System.out.println("Column " + (ponderCol + 1) + " was found while pondering");
+            }
+            event.mode = "ponder";
+            return ponderCol;
+        }
+
+        if (isDepthLimited(position))
+        {
+            long before = heuristic.getNodeCount();
+            int col = heuristic.solve(position, depthLimitMillis);
+            nodeCount += heuristic.getNodeCount() - before;
+            if (verbose)
+            {
+                System.out.println("Depth " + heuristic.getDepth() + " column " + (col + 1) + " score: "
+                    + heuristic.getScore());
+            }
+            event.mode = "depth-limited";
+            event.score = heuristic.getScore();
+            event.depth = heuristic.getDepth();
+            return col;
+        }
+        if (ownsTable)
+        {
+            transTable.newSearch();
+        }
+        event.mode = "exact";
+        long start = System.nanoTime();
+        long startNodes = nodeCount;
+        if (metrics || event.isEnabled() || ROOT_MOVE.isEnabled()) // the events read the table counts
+        {
+            stats = new SolverStats();
+        }
+        ScheduledFuture<?> task = null;
+        if (checkpointFile != null)
+        {
+            task = checkpointTimer.scheduleAtFixedRate(this::checkpoint, checkpointMillis, checkpointMillis,
+                TimeUnit.MILLISECONDS);
+        }
+        try
+        {
+            int col = searchParallel(position, verbose);
+            event.score = rootScore;
+            return col;
+        }
+        finally
+        {
+            if (task != null)
+            {
+                task.cancel(false);
+                checkpointTimer.execute(this::checkpoint);
+            }
+            if (stats != null)
+            {
+                stats.solves = 1;
+                stats.nodes = nodeCount - startNodes;
+                stats.elapsedNanos = System.nanoTime() - start;
+                event.probes = stats.probes;
+                event.hits = stats.hits;
+                event.collisions = stats.collisions;
+                event.overwrites = stats.overwrites;
+                if (metrics)
+                {
+                    lastStats = stats;
+                    totalStats.add(stats);
+                }
+                stats = null;
+            }
+        }
+    }
+
+    /**
+     * Starts solve() on a background thread with a copy of a position, so the caller's board is never
+     * searched and can be painted while the search runs. Searches run one at a time in the order they
+     * were started. Cancelling the future stops its search, and when the time budget runs out the best
+     * column scored so far is returned
+     * @param position of the board, which is copied before returning
+     * @param budgetMillis most time to search for, or 0 for no limit
+     * @return the future best column of position
+     */
+    public CompletableFuture<Integer> solveAsync(Position position, long budgetMillis)
+    {
+        stopPondering();
+        Position copy = new Position(position);
+        CompletableFuture<Integer> future = new CompletableFuture<Integer>();
+        future.whenComplete((col, e) -> {
+            if (future.isCancelled())
+            {
+                stop(future);
+            }
+        });
+        getSearchThread().execute(() -> {
+            synchronized (this)
+            {
+                if (future.isDone()) // cancelled before it started
+                {
+                    return;
+                }
+                stopped = false; // cleared as running is published, so a stop() after this is never lost
+                running = future;
+            }
+            if (budgetMillis > 0)
+            {
+                CompletableFuture.delayedExecutor(budgetMillis, TimeUnit.MILLISECONDS).execute(() -> stop(future));
+            }
+            try
+            {
+                future.complete(solve(copy));
+            }
+            catch (RuntimeException e)
+            {
+                future.completeExceptionally(e);
+            }
+            finally
+            {
+                synchronized (this)
+                {
+                    if (running == future) // the caller may have started another search already
+                    {
+                        running = null;
+                        stopped = false;
+                    }
+                }
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Gets the background thread searches run on one at a time, starting it the first time
+     * @return the search thread
+     */
+    private synchronized ExecutorService getSearchThread()
+    {
+        if (searchThread == null)
+        {
+            searchThread = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "solver-search");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return searchThread;
+    }
+
+    /**
+     * Starts searching the opponent's replies to a position on the background thread while they decide
+     * Replies are searched the way solve() will search them, most likely first, which is the reply stored
+     * in the transposition table for the position. The table keeps everything found, and the best
+     * column of each reply searched to the end is kept for solve() to return at once. Entries of the
+     * replies that are not played are left to age out of the table. Pondering stops when solveAsync()
+     * or stopPondering() is called, and only solveAsync() should be used while pondering
+     * @param position of the board with the opponent to move, which is copied before returning
+     */
+    public void ponder(Position position)
+    {
+        Position copy = new Position(position);
+        Object search = new Object();
+        synchronized (this)
+        {
+            stopPondering();
+            pondering = search;
+        }
+        getSearchThread().execute(() -> {
+            synchronized (this)
+            {
+                if (pondering != search) // stopped before it started
+                {
+                    return;
+                }
+                stopped = false; // cleared as running is published, so stopPondering() is never lost
+                running = search;
+            }
+            try
+            {
+                ponderReplies(copy);
+            }
+            finally
+            {
+                synchronized (this)
+                {
+                    if (running == search)
+                    {
+                        running = null;
+                        stopped = false;
+                    }
+                    if (pondering == search)
+                    {
+                        pondering = null;
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Stops pondering if it is running or waiting to start
+     */
+    public synchronized void stopPondering()
+    {
+        if (pondering != null)
+        {
+            stop(pondering);
+            pondering = null;
+        }
+    }
+
+    /**
+     * Searches each reply to a position until every reply is searched or pondering is stopped
+     * @param position of the board with the opponent to move
+     */
+    private void ponderReplies(Position position)
+    {
+        ponderMoves.clear();
+        if (ownsTable)
+        {
+            transTable.newSearch();
+        }
+        for (int col : getPonderOrder(position))
+        {
+            if (position.canPlay(col) && !position.isWinningMove(col))
+            {
+                position.play(col);
+                if (!position.isFull())
+                {
+                    int reply = -1;
+                    if (book != null)
+                    {
+                        reply = book.getMove(position);
+                    }
+                    if (reply < 0 && isDepthLimited(position))
+                    {
+                        long before = heuristic.getNodeCount();
+                        reply = heuristic.solve(position, depthLimitMillis);
+                        nodeCount += heuristic.getNodeCount() - before;
+                    }
+                    else if (reply < 0)
+                    {
+                        reply = searchParallel(position, false);
+                    }
+                    if (stopped) // the reply is only the best column scored so far
+                    {
+                        position.undo();
+                        return;
+                    }
+                    ponderMoves.put(position.getKey(), reply);
+                }
+                position.undo();
+            }
+        }
+    }
+
+    /**
+     * Gets the order to ponder the replies to a position in, starting with the reply stored in the
+     * transposition table
+     * @param position of the board with the opponent to move
+     * @return the columns in MOVE_ORDER, with the stored reply moved to the front
+     */
+    private int[] getPonderOrder(Position position)
+    {
+        int[] order = MOVE_ORDER.clone();
+        int entry = transTable.get(position.getCanonicalKey());
+        int likely = entry == 0 ? -1 : TranspositionTable.getMove(entry);
+        if (likely >= 0 && position.getKey() != position.getCanonicalKey())
+        {
+            likely = COLS - 1 - likely;
+        }
+        for (int i = 1; i < COLS; i++)
+        {
+            if (order[i] == likely)
+            {
+                System.arraycopy(order, 0, order, 1, i);
+                order[0] = likely;
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Returns the best column to play like solve(), stopping after a time budget and returning the best
+     * column scored so far
+     * @param position of the board
+     * @param budgetMillis most time to search for, or 0 for no limit
+     * @return bestCol of position
+     */
+    public int solve(Position position, long budgetMillis)
+    {
+        Object search = new Object();
+        synchronized (this)
+        {
+            stopped = false;
+            running = search;
+        }
+        if (budgetMillis > 0)
+        {
+            CompletableFuture.delayedExecutor(budgetMillis, TimeUnit.MILLISECONDS).execute(() -> stop(search));
+        }
+        try
+        {
+            return solve(position);
+        }
+        finally
+        {
+            synchronized (this)
+            {
+                if (running == search)
+                {
+                    running = null;
+                    stopped = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops a search if it is still running, and no other search
+     * @param search the future from solveAsync() or the search started by solve() with a budget
+     */
+    private synchronized void stop(Object search)
+    {
+        if (running == search)
+        {
+            stopped = true;
+        }
+    }
+
+    /**
+     * Returns the best column to play, searching with the helpers if there are any
+     * @param position of the board
+     * @param print boolean if the score of each column is printed
+     * @return bestCol of position
+     */
+    private int searchParallel(Position position, boolean print)
+    {
+        if (helpers.length == 0)
+        {
+            return searchRoot(position, MOVE_ORDER, print);
+        }
+
+        Future<?>[] futures = new Future<?>[helpers.length];
+        for (int i = 0; i < helpers.length; i++)
+        {
+            BoardSolver helper = helpers[i];
+            Position copy = new Position(position);
+            int[] order = new int[COLS];
+            for (int j = 0; j < COLS; j++)
+            {
+                order[j] = MOVE_ORDER[(j + i + 1) % COLS]; // starts each helper on a different column
+            }
+            helper.stopped = false;
+            futures[i] = pool.submit(() -> helper.searchRoot(copy, order, false)); // returns early once stopped
+        }
+
+        try
+        {
+            return searchRoot(position, MOVE_ORDER, print);
+        }
+        finally
+        {
+            for (BoardSolver helper : helpers)
+            {
+                helper.stopped = true;
+            }
+            join(futures);
+        }
+    }
+
+    /**
+     * Returns the best column to play by scoring each column in order with scoreColumn(), so a column
+     * is only scored exactly if it beats the best so far. If the search is stopped, the position is
+     * restored and the best column scored so far is returned
+     * @param position of the board
+     * @param order of columns to search
+     * @param print boolean if the score of each column is printed
+     * @return bestCol of position
+     */
+    private int searchRoot(Position position, int[] order, boolean print)
+    {
+        if (print)
+        {
+            System.out.println("----------------------");
+        }
+        int bestScore = NO_BOUND;
+        int bestCol = firstNonLosingCol(position, order);
+        int moves = position.getMoves();
+        rootMoves = moves;
+        rootScore = NO_BOUND;
+        for (int col : order)
+        {
+            if (position.canPlay(col))
+            {
+                if (position.isWinningMove(col))
+                {
+                    rootScore = (ROWS * COLS + 1 - moves) / 2;
+                    return col;
+                }
+                int score = 0;
+                RootMoveEvent event = null; // only allocated while the event is recorded
+                long startNodes = nodeCount;
+                SolverStats startStats = null;
+                if (ROOT_MOVE.isEnabled())
+                {
+                    event = new RootMoveEvent();
+                    event.begin();
+                    if (stats != null)
+                    {
+                        startStats = new SolverStats();
+                        startStats.add(stats);
+                    }
+                }
+                try
+                {
+                    score = scoreColumn(position, col, bestScore);
+                }
+                catch (SearchAbortedException e)
+                {
+                    while (position.getMoves() > moves)
+                    {
+                        position.undo();
+                    }
+                    if (print)
+                    {
+                        System.out.println("Stopped before column " + (col + 1) + " was scored");
+                    }
+                    return bestCol;
+                }
+                if (event != null)
+                {
+                    event.end();
+                    if (event.shouldCommit())
+                    {
+                        event.key = position.getKey();
+                        event.column = col;
+                        event.score = score;
+                        event.exact = score > bestScore;
+                        event.nodes = nodeCount - startNodes;
+                        if (startStats != null)
+                        {
+                            event.probes = stats.probes - startStats.probes;
+                            event.hits = stats.hits - startStats.hits;
+                            event.collisions = stats.collisions - startStats.collisions;
+                            event.overwrites = stats.overwrites - startStats.overwrites;
+                        }
+                        event.commit();
+                    }
+                }
+                if (score > bestScore)
+                {
+                    bestScore = score;
+                    rootScore = score;
+                    bestCol = col;
+                    if (print)
+                    {
+                        System.out.println("Column " + (col + 1) + " score: " + score);
+                    }
+                }
+                else if (print)
+                {
+                    System.out.println("Column " + (col + 1) + " score: <= " + score);
+                }
+            }
+        }
+        if (print)
+        {
+            System.out.println("----------------------");
+        }
+        return bestCol;
+    }
+
+    /**
+     * Gets the first column in order that does not let the opponent win next move, which is played if
+     * the search is stopped before any column is scored
+     * @param position of the board
+     * @param order of columns to check
+     * @return the first non-losing column, or the first playable column if every column loses
+     */
+    private static int firstNonLosingCol(Position position, int[] order)
+    {
+        long nonLosing = position.possibleNonLosingMoves();
+        int playable = -1;
+        for (int col : order)
+        {
+            if ((nonLosing & Position.columnMask(col)) != 0)
+            {
+                return col;
+            }
+            if (playable < 0 && position.canPlay(col))
+            {
+                playable = col;
+            }
+        }
+        return playable;
     }
 }
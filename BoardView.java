@@ -0,0 +1,186 @@
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import javax.swing.JPanel;
+import javax.swing.Timer;
+
+/**
+ *  Draws a BitBoard, reading each cell straight from its bitboards
+ *
+ *  The blue board and its empty holes never change, so they are drawn once into an image that is copied
+ *  on every paint. A move only repaints the column it falls down, and each frame of the falling piece only
+ *  repaints the cells it passes through, so painting stays cheap while the computer is searching
+ *
+ *  @author Neil Kakhandiki
+ *  @version October 18, 2026
+ */
+public class BoardView extends JPanel
+{
+    public static final int DIAMETER = 55;
+    public static final int WIDTH = DIAMETER * 14;
+    public static final int HEIGHT = DIAMETER * 13;
+    public static final int SPACING = DIAMETER * 3 / 2; // distance between the corners of two cells
+    public static final Color BLUE = new Color(54, 101, 255);
+    public static final Color RED = new Color(232, 67, 67);
+    public static final Color YELLOW = new Color(255, 218, 54);
+    public static final int FRAME_MILLIS = 16;
+    public static final int DROP_MILLIS = 240; // time for a piece to fall from the top of the board
+
+    private BitBoard board;
+    private BufferedImage background;
+    private Timer timer;
+    private int dropCol; // column of the falling piece, or -1 if no piece is falling
+    private int dropRow;
+    private int dropY;
+    private long dropStart;
+
+    /**
+     * Create a new BoardView object that draws a board
+     * @param board to draw
+     */
+    public BoardView(BitBoard board)
+    {
+        this.board = board;
+        dropCol = -1;
+        background = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        Graphics graphics = background.getGraphics();
+        graphics.setColor(BLUE);
+        graphics.fillRect(DIAMETER, DIAMETER, DIAMETER * 12, DIAMETER * 21 / 2);
+        graphics.setColor(Color.WHITE);
+        for (int col = 0; col < BitBoard.COLS; col++)
+        {
+            for (int row = 0; row < BitBoard.ROWS; row++)
+            {
+                graphics.fillOval(getCellX(col), getCellY(row), DIAMETER, DIAMETER);
+            }
+        }
+        graphics.dispose();
+        timer = new Timer(FRAME_MILLIS, e -> step());
+    }
+
+    /**
+     * Gets the x coordinate of the left of a column
+     * @param col of the cell
+     * @return the x coordinate in pixels
+     */
+    public static int getCellX(int col)
+    {
+        return DIAMETER * 2 + SPACING * col;
+    }
+
+    /**
+     * Gets the y coordinate of the top of a row
+     * @param row of the cell, counting from the bottom
+     * @return the y coordinate in pixels
+     */
+    public static int getCellY(int row)
+    {
+        return DIAMETER * 2 + SPACING * (BitBoard.ROWS - row - 1);
+    }
+
+    /**
+     * Shows the piece just played in a column falling into place
+     * Must be called on the event dispatch thread after the move is made
+     * @param col that was played
+     */
+    public void moveMade(int col)
+    {
+        finishDrop();
+        dropCol = col;
+        dropRow = board.getHeight(col) - 1;
+        dropY = getCellY(BitBoard.ROWS - 1);
+        dropStart = System.nanoTime();
+        repaint(getCellX(col), dropY, DIAMETER, DIAMETER);
+        timer.start();
+    }
+
+    /**
+     * Moves the falling piece down to where it should be by now, repainting only the cells it left and
+     * entered
+     */
+    private void step()
+    {
+        if (dropCol < 0)
+        {
+            timer.stop();
+            return;
+        }
+        int top = getCellY(BitBoard.ROWS - 1);
+        int bottom = getCellY(dropRow);
+        long elapsed = (System.nanoTime() - dropStart) / 1000000;
+        int y = (int) (top + (long) (getCellY(0) - top) * elapsed / DROP_MILLIS);
+        int oldY = dropY;
+        dropY = Math.min(y, bottom);
+        repaint(getCellX(dropCol), oldY, DIAMETER, dropY - oldY + DIAMETER);
+        if (dropY == bottom)
+        {
+            dropCol = -1;
+            timer.stop();
+        }
+    }
+
+    /**
+     * Puts a falling piece straight into its cell
+     */
+    private void finishDrop()
+    {
+        if (dropCol >= 0)
+        {
+            repaint(getCellX(dropCol), dropY, DIAMETER, getCellY(dropRow) - dropY + DIAMETER);
+            dropCol = -1;
+        }
+        timer.stop();
+    }
+
+    /**
+     * Repaints the whole board, such as after it is reset
+     */
+    public void boardChanged()
+    {
+        finishDrop();
+        repaint();
+    }
+
+    /**
+     * Copies the background and draws the pieces of the cells inside the area being repainted
+     * @param graphics to draw with
+     */
+    public void paintComponent(Graphics graphics)
+    {
+        super.paintComponent(graphics);
+        Rectangle clip = graphics.getClipBounds();
+        if (clip == null)
+        {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        graphics.drawImage(background, 0, 0, null);
+
+        for (int col = 0; col < BitBoard.COLS; col++)
+        {
+            int x = getCellX(col);
+            if (x >= clip.x + clip.width || x + DIAMETER <= clip.x)
+            {
+                continue;
+            }
+            for (int row = 0; row < BitBoard.ROWS; row++)
+            {
+                int y = getCellY(row);
+                int player = board.getCell(col, row);
+                if (player < 0 || (col == dropCol && row == dropRow) || y >= clip.y + clip.height
+                    || y + DIAMETER <= clip.y)
+                {
+                    continue;
+                }
+                graphics.setColor(player == 0 ? RED : YELLOW);
+                graphics.fillOval(x, y, DIAMETER, DIAMETER);
+            }
+        }
+
+        if (dropCol >= 0)
+        {
+            graphics.setColor(board.getCell(dropCol, dropRow) == 0 ? RED : YELLOW);
+            graphics.fillOval(getCellX(dropCol), dropY, DIAMETER, DIAMETER);
+        }
+    }
+}
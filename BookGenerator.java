@@ -0,0 +1,160 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ *  Builds an opening book offline by solving every position up to a number of moves
+ *
+ *  Positions are found breadth first, skipping any whose mirror image was already found, and
+ *  are solved from the deepest to the shallowest so the shallow solves reuse the transposition table
+ *
+ *  @author Neil Kakhandiki
+ *  @version October 18, 2026
+ */
+public class BookGenerator
+{
+    /**
+     * Builds an opening book
+     * @param args depth, then optionally the book file and the transposition table size in megabytes
+     * @throws IOException if the book cannot be written
+     */
+    public static void main(String args[]) throws IOException
+    {
+        if (args.length < 1)
+        {
+            System.out.println("Usage: java BookGenerator <depth> [file] [megabytes]");
+            return;
+        }
+        int depth = Integer.parseInt(args[0]);
+        String file = OpeningBook.DEFAULT_FILE;
+        if (args.length > 1)
+        {
+            file = args[1];
+        }
+        BoardSolver solver = new BoardSolver();
+        if (args.length > 2)
+        {
+            solver = new BoardSolver(Integer.parseInt(args[2]));
+        }
+
+        List<List<Long>> levels = findPositions(depth);
+        List<Long> entries = new ArrayList<Long>();
+        Position position = new Position();
+        long start = System.currentTimeMillis();
+        for (int d = depth; d >= 0; d--)
+        {
+            for (long moves : levels.get(d))
+            {
+                replay(position, moves, d);
+                entries.add(solve(solver, position));
+            }
+            System.out.println("Depth " + d + ": " + levels.get(d).size() + " positions solved after "
+                + (System.currentTimeMillis() - start) + " ms");
+        }
+
+        long[] bookEntries = new long[entries.size()];
+        for (int i = 0; i < bookEntries.length; i++)
+        {
+            bookEntries[i] = entries.get(i);
+        }
+        OpeningBook.write(Paths.get(file), depth, bookEntries);
+        System.out.println("Wrote " + bookEntries.length + " positions to " + file);
+    }
+
+    /**
+     * Finds every position with up to depth moves where nobody has won, keeping one of each mirror pair
+     * A position is stored as its moves, 3 bits per move
+     * @param depth maximum number of moves
+     * @return the positions for each number of moves
+     */
+    private static List<List<Long>> findPositions(int depth)
+    {
+        List<List<Long>> levels = new ArrayList<List<Long>>();
+        HashSet<Long> seen = new HashSet<Long>();
+        List<Long> level = new ArrayList<Long>();
+        level.add(0B0L);
+        levels.add(level);
+        Position position = new Position();
+        for (int d = 0; d < depth; d++)
+        {
+            List<Long> next = new ArrayList<Long>();
+            for (long moves : level)
+            {
+                replay(position, moves, d);
+                for (int col = 0; col < Position.COLS; col++)
+                {
+                    if (position.canPlay(col) && !position.isWinningMove(col))
+                    {
+                        position.play(col);
+                        if (seen.add(position.getCanonicalKey()))
+                        {
+                            next.add(moves | ((long) col << (3 * d)));
+                        }
+                        position.undo();
+                    }
+                }
+            }
+            levels.add(next);
+            level = next;
+        }
+        return levels;
+    }
+
+    /**
+     * Resets the position and plays a stored sequence of moves
+     * @param position to play on
+     * @param moves 3 bits per move
+     * @param count number of moves
+     */
+    private static void replay(Position position, long moves, int count)
+    {
+        position.reset();
+        for (int i = 0; i < count; i++)
+        {
+            position.play((int) ((moves >>> (3 * i)) & 0B111));
+        }
+    }
+
+    /**
+     * Solves a position and packs the result into a book entry for its canonical orientation
+     * @param solver to score the columns with
+     * @param position of the board
+     * @return the book entry
+     */
+    private static long solve(BoardSolver solver, Position position)
+    {
+        int bestScore = Integer.MIN_VALUE;
+        int bestCol = -1;
+        for (int col : BoardSolver.MOVE_ORDER)
+        {
+            if (position.canPlay(col))
+            {
+                int score = 0;
+                if (position.isWinningMove(col))
+                {
+                    score = (Position.AREA + 1 - position.getMoves()) / 2;
+                }
+                else
+                {
+                    position.play(col);
+                    score = -solver.nullWindowSearch(position);
+                    position.undo();
+                }
+                if (score > bestScore)
+                {
+                    bestScore = score;
+                    bestCol = col;
+                }
+            }
+        }
+        long key = position.getKey();
+        long canonical = position.getCanonicalKey();
+        if (key != canonical)
+        {
+            bestCol = Position.COLS - 1 - bestCol;
+        }
+        return OpeningBook.entry(canonical, bestCol, bestScore);
+    }
+}
@@ -3,29 +3,48 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
 import javax.swing.JButton;
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 
 /**
  *  Runs a GUI version of Connect-4
  *
+ *  The computer's move is solved on a background thread with a time budget, so the window keeps
+ *  painting while it thinks. Clicks are ignored until its move is played, and Reset cancels the search
+ *  The computer answers from the first move, searching with a time budget until the position is shallow
+ *  enough to solve exactly. While the human decides, the computer ponders their replies
+ *  BoardView draws the board, so BitBoard is only the model of the game
+ *  A saved transposition table is loaded if there is one, and run with -Dconnect4.checkpoint=true to save
+ *  it while the game is played
+ *
  *  @author Neil Kakhandiki
  *  @version May 19, 2021
  */
 public class GUIMain implements MouseListener, ActionListener
 {
-    public static final int DIAMETER = 55;
-    public static final int WIDTH = DIAMETER * 14;
-    public static final int HEIGHT = DIAMETER * 13;
+    public static final int DIAMETER = BoardView.DIAMETER;
+    public static final int WIDTH = BoardView.WIDTH;
+    public static final int HEIGHT = BoardView.HEIGHT;
+    public static final long THINK_MILLIS = 10000;
+    public static final int EXACT_MOVES = 9; // moves played before the computer solves exactly
+    public static final long DEPTH_LIMIT_MILLIS = 1000; // time to search each move before EXACT_MOVES
+    public static final String TITLE = "Connect 4";
 
     private JFrame frame;
     private BitBoard board;
+    private BoardView view;
     private BoardSolver solver;
-    private int numMoves;
     private JButton reset;
     private JButton pvp; // player versus player
     private boolean pvpBool;
+    private CompletableFuture<Integer> aiMove; // the computer's search, or null when it is not thinking
 
     /**
      * Create a new GUIMain object.
@@ -33,12 +52,42 @@ public class GUIMain implements MouseListener, ActionListener
     public GUIMain()
     {
         pvpBool = true;
-        numMoves = 0;
         solver = new BoardSolver();
+        solver.setVerbose(true);
+        solver.setDepthLimited(DEPTH_LIMIT_MILLIS, Position.AREA - EXACT_MOVES);
+        Path bookFile = Paths.get(OpeningBook.DEFAULT_FILE);
+        if (Files.exists(bookFile))
+        {
+            try
+            {
+                solver.setBook(OpeningBook.load(bookFile));
+            }
+            catch (IOException e)
+            {
+                System.out.println("Could not load opening book: " + e.getMessage());
+            }
+        }
+        Path tableFile = Paths.get(TranspositionTable.DEFAULT_FILE);
+        if (Files.exists(tableFile))
+        {
+            try
+            {
+                solver.loadTable(tableFile);
+            }
+            catch (IOException e)
+            {
+                System.out.println("Could not load transposition table: " + e.getMessage());
+            }
+        }
+        if (Boolean.getBoolean(BoardSolver.CHECKPOINT_PROPERTY)) // the game writes no files unless asked to
+        {
+            solver.setCheckpoint(tableFile, BoardSolver.CHECKPOINT_MILLIS, TranspositionTable.DEFAULT_MIN_WORK);
+        }
         board = new BitBoard();
+        view = new BoardView(board);
         reset = new JButton("Reset");
         pvp = new JButton("Human vs. Human");
-        frame = new JFrame("Connect 4");
+        frame = new JFrame(TITLE);
         frame.addMouseListener(this);
 
         frame.add(reset);
@@ -49,7 +98,7 @@ public class GUIMain implements MouseListener, ActionListener
         pvp.setBounds(WIDTH / 2 + DIAMETER / 2, HEIGHT - DIAMETER, DIAMETER  * 3, DIAMETER);
         pvp.addActionListener(this);
 
-        frame.add(board);
+        frame.add(view);
         frame.pack();
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         frame.setSize(WIDTH, HEIGHT + DIAMETER);
@@ -79,6 +128,10 @@ public class GUIMain implements MouseListener, ActionListener
      */
     public void mousePressed(MouseEvent e)
     {
+        if (aiMove != null) // the computer is thinking
+        {
+            return;
+        }
         double x = e.getX();
         double y = e.getY();
 
@@ -87,49 +140,17 @@ public class GUIMain implements MouseListener, ActionListener
         double endX = initialX + DIAMETER * 3 / 2;
         double temp = 0.0;
 
-        int winningTurn = 0;
-
         if (y > initialY && y < initialY + DIAMETER * 21 / 2)
         {
             for (int col = 0; col < 7; col++)
             {
-                if (x > initialX && x < endX)
+                if (x > initialX && x < endX && board.canMove(col))
                 {
-                    winningTurn = board.getTurn() - 1;
-                    board.makeMove(col);
-                    numMoves++;
-                    frame.repaint();
-                    if (board.isWin(board.getBoard(winningTurn)))
-                    {
-                        JOptionPane.showMessageDialog(frame, "Player "+ (winningTurn + 1) + " Wins");
-                        frame.removeMouseListener(this);
-                        break;
-                    }
-                    else if (board.isFull())
+                    if (!play(col) && !pvpBool)
                     {
-                        JOptionPane.showMessageDialog(frame, "Tie Game");
-                        frame.removeMouseListener(this);
-                        break;
-                    }
-                    if (!pvpBool && numMoves >= 9)
-                    {
-                        winningTurn = board.getTurn() - 1;
-                        board.makeMove(solver.solve(board));
-                        numMoves++;
-                        frame.repaint();
-                        if (board.isWin(board.getBoard(winningTurn)))
-                        {
-                            JOptionPane.showMessageDialog(frame, "Player "+ (winningTurn + 1) + " Wins");
-                            frame.removeMouseListener(this);
-                            break;
-                        }
-                        else if (board.isFull())
-                        {
-                            JOptionPane.showMessageDialog(frame, "Tie Game");
-                            frame.removeMouseListener(this);
-                            break;
-                        }
+                        think();
                     }
+                    break;
                 }
                 temp = endX;
                 endX = temp + DIAMETER * 3 / 2;
@@ -138,6 +159,75 @@ public class GUIMain implements MouseListener, ActionListener
         }
     }
 
+    /**
+     * Plays a move on the board and shows a message if it ends the game
+     * @param col to play
+     * @return boolean if the game is over
+     */
+    private boolean play(int col)
+    {
+        int winningTurn = board.getTurn() - 1;
+        board.makeMove(col);
+        view.moveMade(col);
+        if (board.isWin(board.getBoard(winningTurn)))
+        {
+            JOptionPane.showMessageDialog(frame, "Player "+ (winningTurn + 1) + " Wins");
+            frame.removeMouseListener(this);
+            solver.stopPondering();
+            return true;
+        }
+        else if (board.isFull())
+        {
+            JOptionPane.showMessageDialog(frame, "Tie Game");
+            frame.removeMouseListener(this);
+            solver.stopPondering();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Starts solving the computer's move in the background and plays it on the event dispatch thread
+     * when it is found, unless the game was reset in the meantime. If the search fails, the error is
+     * shown and the board takes input again
+     */
+    private void think()
+    {
+        frame.setTitle(TITLE + " - thinking...");
+        CompletableFuture<Integer> future = solver.solveAsync(board.getPosition(), THINK_MILLIS);
+        aiMove = future;
+        future.whenComplete((col, e) -> SwingUtilities.invokeLater(() -> {
+            if (aiMove == future)
+            {
+                aiMove = null;
+                frame.setTitle(TITLE);
+                if (e != null)
+                {
+                    JOptionPane.showMessageDialog(frame, "The computer could not find a move: " + e, TITLE,
+                        JOptionPane.ERROR_MESSAGE);
+                }
+                else if (!play(col))
+                {
+                    solver.ponder(board.getPosition());
+                }
+            }
+        }));
+    }
+
+    /**
+     * Cancels the computer's search if it is thinking or pondering
+     */
+    private void stopThinking()
+    {
+        solver.stopPondering();
+        if (aiMove != null)
+        {
+            aiMove.cancel(false);
+            aiMove = null;
+            frame.setTitle(TITLE);
+        }
+    }
+
     /**
      *
      */
@@ -178,19 +268,19 @@ public class GUIMain implements MouseListener, ActionListener
     {
         if (e.getSource() == reset)
         {
+            stopThinking();
             frame.removeMouseListener(this);
             board.reset();
-            frame.repaint();
+            view.boardChanged();
             frame.addMouseListener(this);
-            numMoves = 0;
         }
         if (e.getSource() == pvp)
         {
+            stopThinking();
             frame.removeMouseListener(this);
             board.reset();
-            frame.repaint();
+            view.boardChanged();
             frame.addMouseListener(this);
-            numMoves = 0;
             pvpBool = !pvpBool;
             if (pvpBool)
             {
@@ -0,0 +1,323 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ *  Runs a GameService behind a line based text protocol, read from standard input or from clients
+ *  connecting to a port on the loopback address, for playing many games at once and load testing
+ *
+ *  Commands, with columns numbered 1 to 7:
+ *  new                 starts a game and prints "game id"
+ *  play id col         plays a move and prints "played id col result" or "invalid id"
+ *  ai id               asks for the computer's move, later printing "move id col result", or at once
+ *                      "busy id" if the queue is full or "error id message"
+ *  show id             prints "game id moves result"
+ *  end id              ends a game
+ *  load games moves    starts games with random openings of a number of moves, asks for the computer's
+ *                      move in each, waiting and retrying when the service is busy, and prints the rate
+ *  stats               prints the queue and latencies
+ *  quit                closes the connection
+ *
+ *  @author Neil Kakhandiki
+ *  @version October 18, 2026
+ */
+public class GameServer
+{
+    public static final long SEED = 20210519L;
+
+    private GameService service;
+
+    /**
+     * Create a new GameServer object for a service
+     * @param service to send commands to
+     */
+    public GameServer(GameService service)
+    {
+        this.service = service;
+    }
+
+    /**
+     * Starts a service and reads commands from standard input, or from loopback clients if a port is given
+     * @param args "-" or a port, then optionally threads, megabytes, queue capacity, budget in milliseconds
+     * and depth-limited budget in milliseconds
+     * @throws IOException if the input or port cannot be read
+     */
+    public static void main(String args[]) throws IOException
+    {
+        String input = "-";
+        int threads = Runtime.getRuntime().availableProcessors();
+        int megabytes = TranspositionTable.DEFAULT_MEGABYTES;
+        int queue = GameService.DEFAULT_QUEUE;
+        long budget = GameService.DEFAULT_BUDGET_MILLIS;
+        long depthLimit = 0;
+        if (args.length > 0)
+        {
+            input = args[0];
+        }
+        if (args.length > 1)
+        {
+            threads = Integer.parseInt(args[1]);
+        }
+        if (args.length > 2)
+        {
+            megabytes = Integer.parseInt(args[2]);
+        }
+        if (args.length > 3)
+        {
+            queue = Integer.parseInt(args[3]);
+        }
+        if (args.length > 4)
+        {
+            budget = Long.parseLong(args[4]);
+        }
+        if (args.length > 5)
+        {
+            depthLimit = Long.parseLong(args[5]);
+        }
+
+        GameService service = new GameService(threads, megabytes, queue, budget);
+        service.setDepthLimited(depthLimit);
+        Path bookFile = Paths.get(OpeningBook.DEFAULT_FILE);
+        if (Files.exists(bookFile))
+        {
+            service.setBook(OpeningBook.load(bookFile));
+        }
+        GameServer server = new GameServer(service);
+
+        if (input.equals("-"))
+        {
+            server.serve(new BufferedReader(new InputStreamReader(System.in)),
+                new PrintWriter(new OutputStreamWriter(System.out), true));
+            service.shutdown();
+            return;
+        }
+        try (ServerSocket socket = new ServerSocket(Integer.parseInt(input), 50, InetAddress.getLoopbackAddress()))
+        {
+            System.err.println("Listening on " + socket.getLocalSocketAddress());
+            while (true)
+            {
+                Socket client = socket.accept();
+                Thread thread = new Thread(() -> server.serveClient(client), "game-client");
+                thread.setDaemon(true);
+                thread.start();
+            }
+        }
+    }
+
+    /**
+     * Serves one loopback client until it quits or disconnects
+     * @param client socket of the client
+     */
+    private void serveClient(Socket client)
+    {
+        try (Socket socket = client)
+        {
+            serve(new BufferedReader(new InputStreamReader(socket.getInputStream())),
+                new PrintWriter(new OutputStreamWriter(socket.getOutputStream()), true));
+        }
+        catch (IOException e)
+        {
+            System.err.println("Client disconnected: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs commands until the input ends or "quit" is read, then waits for the computer's moves still
+     * being searched so their replies are not lost
+     * @param reader of commands
+     * @param writer for replies, which is locked while a reply is written since replies to "ai" come
+     * from the workers
+     * @throws IOException if the commands cannot be read
+     */
+    public void serve(BufferedReader reader, PrintWriter writer) throws IOException
+    {
+        CompletableFuture<?> pending = CompletableFuture.completedFuture(null);
+        String line = reader.readLine();
+        while (line != null && !line.trim().equals("quit"))
+        {
+            String[] words = line.trim().split("\\s+");
+            try
+            {
+                CompletableFuture<?> reply = run(words, writer);
+                if (reply != null)
+                {
+                    pending = CompletableFuture.allOf(pending, reply);
+                }
+            }
+            catch (NumberFormatException | ArrayIndexOutOfBoundsException e)
+            {
+                reply(writer, "error bad command: " + line);
+            }
+            line = reader.readLine();
+        }
+        pending.join();
+    }
+
+    /**
+     * Runs one command
+     * @param words of the command
+     * @param writer for replies
+     * @return the future reply of an "ai" command, or null if the reply was written
+     */
+    private CompletableFuture<?> run(String[] words, PrintWriter writer)
+    {
+        String command = words[0];
+        if (command.equals("new"))
+        {
+            reply(writer, "game " + service.newGame().getId());
+        }
+        else if (command.equals("play"))
+        {
+            long id = Long.parseLong(words[1]);
+            int col = Integer.parseInt(words[2]) - 1;
+            GameSession session = service.getGame(id);
+            int result = GameSession.INVALID;
+            if (session != null)
+            {
+                result = session.play(col);
+            }
+            if (result == GameSession.INVALID)
+            {
+                reply(writer, "invalid " + id);
+            }
+            else
+            {
+                reply(writer, "played " + id + " " + (col + 1) + " " + GameSession.describe(result));
+            }
+        }
+        else if (command.equals("ai"))
+        {
+            long id = Long.parseLong(words[1]);
+            GameSession session = service.getGame(id);
+            return service.requestMove(id).handle((col, e) -> {
+                if (e == null)
+                {
+                    reply(writer, "move " + id + " " + (col + 1) + " "
+                        + GameSession.describe(session.getResult()));
+                }
+                else if (e instanceof RejectedExecutionException)
+                {
+                    reply(writer, "busy " + id);
+                }
+                else
+                {
+                    reply(writer, "error " + id + " " + e.getMessage());
+                }
+                return null;
+            });
+        }
+        else if (command.equals("show"))
+        {
+            GameSession session = service.getGame(Long.parseLong(words[1]));
+            reply(writer, session == null ? "invalid " + words[1] : "game " + session);
+        }
+        else if (command.equals("end"))
+        {
+            reply(writer, service.endGame(Long.parseLong(words[1])) ? "ended " + words[1] : "invalid " + words[1]);
+        }
+        else if (command.equals("load"))
+        {
+            load(Integer.parseInt(words[1]), Integer.parseInt(words[2]), writer);
+        }
+        else if (command.equals("stats"))
+        {
+            reply(writer, service.toString());
+        }
+        else if (!command.isEmpty())
+        {
+            reply(writer, "error unknown command: " + command);
+        }
+        return null;
+    }
+
+    /**
+     * Writes one reply, so replies from different threads are never mixed
+     * @param writer for replies
+     * @param text of the reply
+     */
+    private static void reply(PrintWriter writer, String text)
+    {
+        synchronized (writer)
+        {
+            writer.println(text);
+        }
+    }
+
+    /**
+     * Starts games with random openings, asks for the computer's move in each and reports the rate
+     * Rejected requests are retried after a short wait, which is the back-pressure a real client applies
+     * @param games to start
+     * @param moves of random opening in each game
+     * @param writer for replies
+     */
+    private void load(int games, int moves, PrintWriter writer)
+    {
+        Random random = new Random(SEED);
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[games];
+        long[] ids = new long[games];
+        long retries = 0;
+        long start = System.nanoTime();
+        for (int g = 0; g < games; g++)
+        {
+            GameSession session = service.newGame();
+            ids[g] = session.getId();
+            while (session.getMoves().length() < moves && session.getResult() == GameSession.PLAYING)
+            {
+                session.play(random.nextInt(Position.COLS));
+            }
+            futures[g] = service.requestMove(session.getId());
+            while (futures[g].isCompletedExceptionally() && isRejected(futures[g]))
+            {
+                retries++;
+                try
+                {
+                    Thread.sleep(1);
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                futures[g] = service.requestMove(session.getId());
+            }
+        }
+        CompletableFuture.allOf(futures).exceptionally(e -> null).join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        for (long id : ids)
+        {
+            service.endGame(id);
+        }
+        reply(writer, String.format("loaded %d games in %.3f s (%.1f moves/s), %d retries", games, seconds,
+            games / seconds, retries));
+    }
+
+    /**
+     * Checks if a failed request was refused because the queue was full
+     * @param future of the request, which has failed
+     * @return boolean if it was rejected
+     */
+    private static boolean isRejected(CompletableFuture<?> future)
+    {
+        try
+        {
+            future.join();
+            return false;
+        }
+        catch (CompletionException e)
+        {
+            return e.getCause() instanceof RejectedExecutionException;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *  Hosts many games at once and answers requests for the computer's move with a fixed pool of workers
+ *
+ *  Every worker keeps its own BoardSolver, but all of them share one transposition table, so memory
+ *  does not grow with the number of games or workers. Requests wait in a bounded queue. When it is full,
+ *  a request fails at once with a RejectedExecutionException instead of waiting, so callers can slow
+ *  down. Each request is searched for at most a time budget, and the time spent waiting in the queue,
+ *  searching and in total is recorded
+ *
+ *  @author Neil Kakhandiki
+ *  @version October 18, 2026
+ */
+public class GameService
+{
+    public static final int DEFAULT_QUEUE = 1024;
+    public static final long DEFAULT_BUDGET_MILLIS = 1000;
+    public static final int GENERATION_REQUESTS = 256; // requests per generation of the shared table
+
+    private TranspositionTable table;
+    private OpeningBook book;
+    private ThreadPoolExecutor workers;
+    private ThreadLocal<BoardSolver> solvers;
+    private ConcurrentHashMap<Long, GameSession> sessions;
+    private AtomicLong nextId;
+    private AtomicLong requests;
+    private long budgetMillis;
+    private long depthLimitMillis;
+    private LatencyRecorder queueLatency;
+    private LatencyRecorder searchLatency;
+    private LatencyRecorder totalLatency;
+    private LongAdder rejected;
+
+    /**
+     * Create a new GameService object with its workers and shared transposition table
+     * @param threads number of workers
+     * @param megabytes of memory for the shared transposition table
+     * @param queueCapacity most requests that can wait for a worker
+     * @param budgetMillis most time to search for each move, or 0 for no limit
+     */
+    public GameService(int threads, int megabytes, int queueCapacity, long budgetMillis)
+    {
+        table = new TranspositionTable(megabytes);
+        this.budgetMillis = budgetMillis;
+        workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<Runnable>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "game-worker");
+                thread.setDaemon(true);
+                return thread;
+            });
+        solvers = ThreadLocal.withInitial(() -> {
+            BoardSolver solver = new BoardSolver(table);
+            solver.setBook(book);
+            solver.setDepthLimited(depthLimitMillis);
+            return solver;
+        });
+        sessions = new ConcurrentHashMap<Long, GameSession>();
+        nextId = new AtomicLong();
+        requests = new AtomicLong();
+        queueLatency = new LatencyRecorder();
+        searchLatency = new LatencyRecorder();
+        totalLatency = new LatencyRecorder();
+        rejected = new LongAdder();
+    }
+
+    /**
+     * Sets the opening book the workers answer from before searching, which must be called before the
+     * first request
+     * @param book of solved positions, or null for no book
+     */
+    public void setBook(OpeningBook book)
+    {
+        this.book = book;
+    }
+
+    /**
+     * Sets depth-limited mode for the workers, which must be called before the first request
+     * Positions with more than BoardSolver.EXACT_EMPTY empty cells are then searched for at most this
+     * long instead of solved exactly, so every move is fast
+     * @param depthLimitMillis most time to search a deep position for, or 0 to always solve exactly
+     */
+    public void setDepthLimited(long depthLimitMillis)
+    {
+        this.depthLimitMillis = depthLimitMillis;
+    }
+
+    /**
+     * Starts a new game
+     * @return the session of the game
+     */
+    public GameSession newGame()
+    {
+        GameSession session = new GameSession(nextId.incrementAndGet());
+        sessions.put(session.getId(), session);
+        return session;
+    }
+
+    /**
+     * Gets a game
+     * @param id of the game
+     * @return the session or null if there is no game with the id
+     */
+    public GameSession getGame(long id)
+    {
+        return sessions.get(id);
+    }
+
+    /**
+     * Ends a game so its session can be freed
+     * @param id of the game
+     * @return boolean if there was a game with the id
+     */
+    public boolean endGame(long id)
+    {
+        return sessions.remove(id) != null;
+    }
+
+    /**
+     * Gets the number of games being hosted
+     * @return the number of sessions
+     */
+    public int getGameCount()
+    {
+        return sessions.size();
+    }
+
+    /**
+     * Asks a worker for the computer's move in a game, which is played in the session when it is found
+     * @param id of the game
+     * @return the future column played, which fails with RejectedExecutionException if the queue is full,
+     * IllegalArgumentException if there is no game, or IllegalStateException if the game is over or
+     * already waiting for a move
+     */
+    public CompletableFuture<Integer> requestMove(long id)
+    {
+        CompletableFuture<Integer> future = new CompletableFuture<Integer>();
+        GameSession session = sessions.get(id);
+        if (session == null)
+        {
+            future.completeExceptionally(new IllegalArgumentException("no game " + id));
+            return future;
+        }
+        Position position = session.startThinking();
+        if (position == null)
+        {
+            future.completeExceptionally(new IllegalStateException("game " + id + " cannot move"));
+            return future;
+        }
+
+        long submitted = System.nanoTime();
+        try
+        {
+            workers.execute(() -> search(session, position, submitted, future));
+        }
+        catch (RejectedExecutionException e)
+        {
+            session.cancelThinking();
+            rejected.increment();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Searches for the computer's move on a worker, plays it and records the latencies
+     * @param session of the game
+     * @param position copy of the game's position
+     * @param submitted time the request was queued
+     * @param future to complete with the column played
+     */
+    private void search(GameSession session, Position position, long submitted, CompletableFuture<Integer> future)
+    {
+        long started = System.nanoTime();
+        if (requests.incrementAndGet() % GENERATION_REQUESTS == 0)
+        {
+            table.newSearch();
+        }
+        try
+        {
+            int col = solvers.get().solve(position, budgetMillis);
+            session.finishThinking(col);
+            long finished = System.nanoTime();
+            queueLatency.record(started - submitted);
+            searchLatency.record(finished - started);
+            totalLatency.record(finished - submitted);
+            future.complete(col);
+        }
+        catch (RuntimeException e)
+        {
+            session.cancelThinking();
+            future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Gets the number of requests waiting for a worker
+     * @return the queue length
+     */
+    public int getQueueLength()
+    {
+        return workers.getQueue().size();
+    }
+
+    /**
+     * Gets the number of requests refused because the queue was full
+     * @return the rejected count
+     */
+    public long getRejected()
+    {
+        return rejected.sum();
+    }
+
+    /**
+     * Gets the time requests waited for a worker
+     * @return the queue latencies
+     */
+    public LatencyRecorder getQueueLatency()
+    {
+        return queueLatency;
+    }
+
+    /**
+     * Gets the time workers spent searching
+     * @return the search latencies
+     */
+    public LatencyRecorder getSearchLatency()
+    {
+        return searchLatency;
+    }
+
+    /**
+     * Gets the time from each request to its move being played
+     * @return the total latencies
+     */
+    public LatencyRecorder getTotalLatency()
+    {
+        return totalLatency;
+    }
+
+    /**
+     * Returns the number of games, the queue and the latencies as a few lines of text
+     * @return a summary of the service
+     */
+    public String toString()
+    {
+        return "games " + getGameCount() + ", queued " + getQueueLength() + ", rejected " + getRejected()
+            + System.lineSeparator() + "queue  " + queueLatency
+            + System.lineSeparator() + "search " + searchLatency
+            + System.lineSeparator() + "total  " + totalLatency;
+    }
+
+    /**
+     * Stops the workers once the requests already queued are finished
+     */
+    public void shutdown()
+    {
+        workers.shutdown();
+    }
+}
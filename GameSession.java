@@ -0,0 +1,176 @@
+
+/**
+ *  The state of one game hosted by a GameService: the position and whether the computer is thinking
+ *
+ *  A session is only a Position and a few fields, so thousands can be held at once. The search for the
+ *  computer's move runs on a copy of the position, and moves are refused while it runs so the copy is
+ *  still the current position when the move is played
+ *
+ *  @author Neil Kakhandiki
+ *  @version October 18, 2026
+ */
+public class GameSession
+{
+    public static final int INVALID = -1;
+    public static final int PLAYING = 0;
+    public static final int WIN = 1;
+    public static final int DRAW = 2;
+
+    private long id;
+    private Position position;
+    private StringBuilder moves;
+    private int result;
+    private boolean thinking;
+
+    /**
+     * Create a new GameSession object with an empty board
+     * @param id of the game
+     */
+    public GameSession(long id)
+    {
+        this.id = id;
+        position = new Position();
+        moves = new StringBuilder();
+        result = PLAYING;
+    }
+
+    /**
+     * Gets the id of the game
+     * @return the id
+     */
+    public long getId()
+    {
+        return id;
+    }
+
+    /**
+     * Plays a move for the player to move
+     * @param col to play
+     * @return WIN if the move wins, DRAW if it fills the board, PLAYING otherwise, or INVALID if the
+     * column is full, the game is over, or the computer is thinking
+     */
+    public synchronized int play(int col)
+    {
+        if (thinking)
+        {
+            return INVALID;
+        }
+        return playMove(col);
+    }
+
+    /**
+     * Plays a move if it is legal
+     * @param col to play
+     * @return the result of the game after the move, or INVALID
+     */
+    private int playMove(int col)
+    {
+        if (result != PLAYING || col < 0 || col >= Position.COLS || !position.canPlay(col))
+        {
+            return INVALID;
+        }
+        boolean win = position.isWinningMove(col);
+        position.play(col);
+        moves.append(col + 1);
+        if (win)
+        {
+            result = WIN;
+        }
+        else if (position.isFull())
+        {
+            result = DRAW;
+        }
+        return result;
+    }
+
+    /**
+     * Starts the computer thinking, so moves are refused until it finishes
+     * @return a copy of the position to search, or null if the game is over or it is already thinking
+     */
+    public synchronized Position startThinking()
+    {
+        if (thinking || result != PLAYING)
+        {
+            return null;
+        }
+        thinking = true;
+        return new Position(position);
+    }
+
+    /**
+     * Plays the computer's move and lets moves be played again
+     * @param col found by the search
+     * @return the result of the game after the move, or INVALID
+     */
+    public synchronized int finishThinking(int col)
+    {
+        thinking = false;
+        return playMove(col);
+    }
+
+    /**
+     * Lets moves be played again after the search for the computer's move failed
+     */
+    public synchronized void cancelThinking()
+    {
+        thinking = false;
+    }
+
+    /**
+     * Checks if the computer is thinking
+     * @return boolean if a move request is waiting or being searched
+     */
+    public synchronized boolean isThinking()
+    {
+        return thinking;
+    }
+
+    /**
+     * Gets the result of the game
+     * @return PLAYING, WIN for the player who moved last, or DRAW
+     */
+    public synchronized int getResult()
+    {
+        return result;
+    }
+
+    /**
+     * Gets the moves played
+     * @return columns numbered 1 to 7
+     */
+    public synchronized String getMoves()
+    {
+        return moves.toString();
+    }
+
+    /**
+     * Returns the game as its id, moves and result
+     * @return a one line description of the game
+     */
+    public synchronized String toString()
+    {
+        return id + " " + moves + " " + describe(result);
+    }
+
+    /**
+     * Names a result from play()
+     * @param result of a move
+     * @return "invalid", "playing", "win" or "draw"
+     */
+    public static String describe(int result)
+    {
+        if (result == WIN)
+        {
+            return "win";
+        }
+        if (result == DRAW)
+        {
+            return "draw";
+        }
+        if (result == PLAYING)
+        {
+            return "playing";
+        }
+        return "invalid";
+    }
+}
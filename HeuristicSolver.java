@@ -0,0 +1,317 @@
+import java.util.function.BooleanSupplier;
+
+/**
+ * Picks a move for a Connect-4 Position within a time budget, for positions too deep to solve exactly
+ *
+ * Iterative deepening runs negamax with alpha beta pruning to depth 1, 2, 3 and so on until the budget
+ * runs out, and plays the best column of the deepest search that finished. Each search starts with the
+ * best column of the one before it, and every position remembers its best column in a small table to
+ * search it first next time. At the depth limit a position is scored by evaluate(), which only counts
+ * bits: open threats, threats on the rows that suit each player, and pieces in the center columns.
+ * Wins and losses found before the limit score WIN_SCALE times the exact score, which is always higher
+ * than any evaluation, so a proven result is never traded for a good looking position
+ *
+ *  @author Neil Kakhandiki
+ *  @version October 18, 2026
+ */
+public class HeuristicSolver
+{
+    public static final int ROWS = Position.ROWS;
+    public static final int COLS = Position.COLS;
+    public static final int AREA = Position.AREA;
+    public static final int[] MOVE_ORDER = BoardSolver.MOVE_ORDER;
+    public static final int WIN_SCALE = 1000; // larger than any evaluation
+    public static final int INFINITY = WIN_SCALE * AREA;
+    public static final int THREAT_WEIGHT = 16;
+    public static final int PARITY_WEIGHT = 12;
+    public static final int CENTER_WEIGHT = 4;
+    public static final int NEAR_CENTER_WEIGHT = 2;
+    public static final long ODD_ROWS = Position.BOTTOM_MASK * 0B010101L; // rows 1, 3 and 5, counting from 1
+    public static final long EVEN_ROWS = Position.BOTTOM_MASK * 0B101010L; // rows 2, 4 and 6
+    public static final long CENTER = Position.columnMask(COLS / 2);
+    public static final long NEAR_CENTER = Position.columnMask(COLS / 2 - 1) | Position.columnMask(COLS / 2 + 1);
+    public static final int MOVE_TABLE_SIZE = 1 << 16;
+
+    private BooleanSupplier stopped;
+    private long start;
+    private long budgetNanos;
+    private long nodeCount;
+    private int depth;
+    private int score;
+    private long[] moveTable; // key << 3 | best column + 1
+    private int[][] sortedCols;
+    private long[][] sortedMoves;
+    private int[][] sortedScores;
+
+    /**
+     * Create a new HeuristicSolver object that can only be stopped by its time budget
+     */
+    public HeuristicSolver()
+    {
+        this(() -> false);
+    }
+
+    /**
+     * Create a new HeuristicSolver object that also stops when an owner asks it to
+     * @param stopped checked every 1024 nodes, and true stops the search
+     */
+    public HeuristicSolver(BooleanSupplier stopped)
+    {
+        this.stopped = stopped;
+        moveTable = new long[MOVE_TABLE_SIZE];
+        sortedCols = new int[AREA][COLS];
+        sortedMoves = new long[AREA][COLS];
+        sortedScores = new int[AREA][COLS];
+    }
+
+    /**
+     * Gets the number of positions searched
+     * @return the node count
+     */
+    public long getNodeCount()
+    {
+        return nodeCount;
+    }
+
+    /**
+     * Gets the depth of the last search that finished in the last call to solve()
+     * @return the depth in moves, or 0 if the move was forced or no search finished
+     */
+    public int getDepth()
+    {
+        return depth;
+    }
+
+    /**
+     * Gets the score of the best column at the depth of getDepth()
+     * @return the heuristic score, which is WIN_SCALE times the exact score for a proven result
+     */
+    public int getScore()
+    {
+        return score;
+    }
+
+    /**
+     * Scores a position for the player to move by counting bits, without searching
+     * @param position of the board
+     * @return a score between -WIN_SCALE and WIN_SCALE
+     */
+    public static int evaluate(Position position)
+    {
+        long mask = position.getMask();
+        long own = position.getPosition();
+        long opponent = own ^ mask;
+        long ownThreats = Position.computeWinningPosition(own, mask);
+        long opponentThreats = Position.computeWinningPosition(opponent, mask);
+        // the first player can usually only claim threats on odd rows and the second player on even rows
+        long ownRows = (position.getMoves() & 1) == 0 ? ODD_ROWS : EVEN_ROWS;
+        long opponentRows = ownRows ^ Position.BOARD_MASK;
+
+        int value = THREAT_WEIGHT * (Long.bitCount(ownThreats) - Long.bitCount(opponentThreats))
+            + PARITY_WEIGHT * (Long.bitCount(ownThreats & ownRows) - Long.bitCount(opponentThreats & opponentRows))
+            + CENTER_WEIGHT * (Long.bitCount(own & CENTER) - Long.bitCount(opponent & CENTER))
+            + NEAR_CENTER_WEIGHT * (Long.bitCount(own & NEAR_CENTER) - Long.bitCount(opponent & NEAR_CENTER));
+        return Math.max(-WIN_SCALE + 1, Math.min(WIN_SCALE - 1, value));
+    }
+
+    /**
+     * Returns the best column found by searching deeper and deeper until the time budget runs out or the
+     * position is searched to the end
+     * @param position of the board, which is restored before returning
+     * @param budgetMillis most time to search for, or 0 for no limit
+     * @return bestCol of position, or -1 if the board is full
+     */
+    public int solve(Position position, long budgetMillis)
+    {
+        start = System.nanoTime();
+        budgetNanos = budgetMillis > 0 ? budgetMillis * 1000000 : Long.MAX_VALUE;
+        depth = 0;
+        score = 0;
+        int moves = position.getMoves();
+        long nonLosing = position.possibleNonLosingMoves();
+        int[] order = new int[COLS];
+        int count = 0;
+        int playable = -1;
+        for (int col : MOVE_ORDER)
+        {
+            if (position.canPlay(col))
+            {
+                if (position.isWinningMove(col))
+                {
+                    score = WIN_SCALE * ((AREA + 1 - moves) / 2);
+                    return col;
+                }
+                if ((nonLosing & Position.columnMask(col)) != 0)
+                {
+                    order[count++] = col;
+                }
+                if (playable < 0)
+                {
+                    playable = col;
+                }
+            }
+        }
+        if (count == 0)
+        {
+            return playable; // every column loses
+        }
+        if (count == 1)
+        {
+            return order[0]; // the only column that does not lose
+        }
+
+        int bestCol = order[0];
+        for (int limit = 1; limit <= AREA - moves; limit++)
+        {
+            int iterationCol = -1;
+            int iterationScore = -INFINITY;
+            try
+            {
+                for (int i = 0; i < count; i++)
+                {
+                    position.play(order[i]);
+                    int value = -negamax(position, limit - 1, -INFINITY, -iterationScore);
+                    position.undo();
+                    if (value > iterationScore)
+                    {
+                        iterationScore = value;
+                        iterationCol = order[i];
+                    }
+                }
+            }
+            catch (SearchAbortedException e)
+            {
+                while (position.getMoves() > moves)
+                {
+                    position.undo();
+                }
+                break;
+            }
+            bestCol = iterationCol;
+            score = iterationScore;
+            depth = limit;
+            // searches the best column first next time, keeping the order of the rest
+            int i = 0;
+            while (order[i] != bestCol)
+            {
+                i++;
+            }
+            System.arraycopy(order, 0, order, 1, i);
+            order[0] = bestCol;
+            if (Math.abs(iterationScore) >= WIN_SCALE) // a proven win or loss does not change with depth
+            {
+                break;
+            }
+        }
+        return bestCol;
+    }
+
+    /**
+     * Returns the score of a position searched to a depth, scoring the positions at the depth with
+     * evaluate()
+     * @param position of the board
+     * @param remaining depth to search
+     * @param alpha lower bound
+     * @param beta upper bound
+     * @return the score of a board position
+     */
+    private int negamax(Position position, int remaining, int alpha, int beta)
+    {
+        nodeCount++;
+        if ((nodeCount & 1023) == 0 && (System.nanoTime() - start >= budgetNanos || stopped.getAsBoolean()))
+        {
+            throw new SearchAbortedException();
+        }
+
+        if (position.canWinNext())
+        {
+            return WIN_SCALE * ((AREA + 1 - position.getMoves()) / 2);
+        }
+        long next = position.possibleNonLosingMoves();
+        if (next == 0)
+        {
+            return -WIN_SCALE * ((AREA - position.getMoves()) / 2); // the opponent wins on their next move
+        }
+        if (position.getMoves() >= AREA - 2)
+        {
+            return 0;
+        }
+        if (remaining == 0)
+        {
+            return evaluate(position);
+        }
+
+        long key = position.getKey();
+        int index = (int) (key % MOVE_TABLE_SIZE);
+        int tableMove = -1;
+        if (moveTable[index] >>> 3 == key)
+        {
+            tableMove = (int) (moveTable[index] & 7) - 1;
+        }
+
+        int ply = position.getMoves();
+        int[] cols = sortedCols[ply];
+        long[] moves = sortedMoves[ply];
+        int count = sortMoves(position, next, tableMove);
+        int best = -INFINITY;
+        int bestCol = -1;
+        for (int i = 0; i < count; i++)
+        {
+            position.play(moves[i]);
+            int value = -negamax(position, remaining - 1, -beta, -alpha);
+            position.undo();
+            if (value > best)
+            {
+                best = value;
+                bestCol = cols[i];
+            }
+            alpha = Math.max(alpha, best);
+            if (alpha >= beta) // pruning
+            {
+                break;
+            }
+        }
+        moveTable[index] = key << 3 | (bestCol + 1);
+        return best;
+    }
+
+    /**
+     * Sorts the moves of a position into sortedCols and sortedMoves for its ply, best first
+     * The move from the table goes first, then moves are ranked by the winning cells they create, and
+     * ties keep MOVE_ORDER
+     * @param position of the board
+     * @param next bitmap of the moves to sort
+     * @param tableMove best column from the last search of the position, or -1
+     * @return the number of moves
+     */
+    private int sortMoves(Position position, long next, int tableMove)
+    {
+        int ply = position.getMoves();
+        int[] cols = sortedCols[ply];
+        long[] moves = sortedMoves[ply];
+        int[] scores = sortedScores[ply];
+        int count = 0;
+        for (int col : MOVE_ORDER)
+        {
+            long move = next & Position.columnMask(col);
+            if (move != 0)
+            {
+                int score = col == tableMove ? Integer.MAX_VALUE : position.moveScore(move);
+                // insertion sort, placing the move after every move with an equal or higher score
+                int i = count;
+                while (i > 0 && scores[i - 1] < score)
+                {
+                    cols[i] = cols[i - 1];
+                    moves[i] = moves[i - 1];
+                    scores[i] = scores[i - 1];
+                    i--;
+                }
+                cols[i] = col;
+                moves[i] = move;
+                scores[i] = score;
+                count++;
+            }
+        }
+        return count;
+    }
+}
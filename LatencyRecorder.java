@@ -0,0 +1,151 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *  Records latencies from many threads at once and reports their mean and percentiles
+ *
+ *  Latencies are counted in buckets instead of being kept, so recording never allocates or locks and
+ *  memory stays the same however many are recorded. Each power of two of microseconds is split into 8
+ *  buckets, so a percentile is within 12.5% of the true latency
+ *
+ *  @author Neil Kakhandiki
+ *  @version October 18, 2026
+ */
+public class LatencyRecorder
+{
+    public static final int SUB_BUCKETS = 8;
+    public static final int BUCKETS = (Long.SIZE - 2) * SUB_BUCKETS;
+
+    private AtomicLongArray counts;
+    private LongAdder count;
+    private LongAdder totalMicros;
+    private AtomicLong maxMicros;
+
+    /**
+     * Create a new LatencyRecorder object with nothing recorded
+     */
+    public LatencyRecorder()
+    {
+        counts = new AtomicLongArray(BUCKETS);
+        count = new LongAdder();
+        totalMicros = new LongAdder();
+        maxMicros = new AtomicLong();
+    }
+
+    /**
+     * Records one latency
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos)
+    {
+        long micros = Math.max(nanos / 1000, 0);
+        counts.incrementAndGet(getBucket(micros));
+        count.increment();
+        totalMicros.add(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    /**
+     * Gets the bucket of a latency: values below SUB_BUCKETS have their own bucket, and larger values
+     * are placed by their highest bit and the 3 bits after it
+     * @param micros latency in microseconds
+     * @return index of the bucket
+     */
+    private static int getBucket(long micros)
+    {
+        if (micros < SUB_BUCKETS)
+        {
+            return (int) micros;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(micros);
+        int sub = (int) (micros >>> (exponent - 3)) & (SUB_BUCKETS - 1);
+        return (exponent - 2) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Gets the largest latency that falls in a bucket
+     * @param bucket index
+     * @return the upper limit of the bucket in microseconds
+     */
+    private static long getUpperLimit(int bucket)
+    {
+        if (bucket < SUB_BUCKETS)
+        {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + 2;
+        long sub = bucket % SUB_BUCKETS;
+        return ((SUB_BUCKETS + sub + 1) << (exponent - 3)) - 1;
+    }
+
+    /**
+     * Gets the number of latencies recorded
+     * @return the count
+     */
+    public long getCount()
+    {
+        return count.sum();
+    }
+
+    /**
+     * Gets the mean latency
+     * @return the mean in microseconds, or 0 if nothing was recorded
+     */
+    public double getMeanMicros()
+    {
+        long n = count.sum();
+        if (n == 0)
+        {
+            return 0;
+        }
+        return (double) totalMicros.sum() / n;
+    }
+
+    /**
+     * Gets the largest latency recorded
+     * @return the maximum in microseconds
+     */
+    public long getMaxMicros()
+    {
+        return maxMicros.get();
+    }
+
+    /**
+     * Gets the latency that a fraction of the recorded latencies are at or below
+     * @param percentile from 0 to 100, such as 99 for the 99th percentile
+     * @return the percentile in microseconds, rounded up to its bucket, or 0 if nothing was recorded
+     */
+    public long getPercentileMicros(double percentile)
+    {
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++)
+        {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        long rank = (long) Math.ceil(percentile / 100 * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++)
+        {
+            seen += snapshot[i];
+            if (seen >= rank && seen > 0)
+            {
+                return Math.min(getUpperLimit(i), getMaxMicros());
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the count, mean, percentiles and maximum as one line
+     * @return a summary of the latencies in milliseconds
+     */
+    public String toString()
+    {
+        return String.format("count %d, mean %.3f ms, p50 %.3f ms, p90 %.3f ms, p99 %.3f ms, max %.3f ms",
+            getCount(), getMeanMicros() / 1000, getPercentileMicros(50) / 1000.0,
+            getPercentileMicros(90) / 1000.0, getPercentileMicros(99) / 1000.0, getMaxMicros() / 1000.0);
+    }
+}
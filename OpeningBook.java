@@ -0,0 +1,201 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ *  A precomputed book of solved opening positions, read from a memory-mapped binary file
+ *
+ *  The file is a 16 byte header (magic number, depth, entry count) followed by sorted longs.
+ *  Each long holds the canonical key of a position in the upper bits, then the score plus 32 in
+ *  6 bits and the best column in 3 bits. The best column is for the canonical orientation, so it
+ *  is mirrored when the position being looked up is the mirror image of the stored one
+ *
+ *  @author Neil Kakhandiki
+ *  @version October 18, 2026
+ */
+public class OpeningBook
+{
+    public static final int COLS = 7;
+    public static final int MAGIC = 0x4334424B; // "C4BK"
+    public static final int HEADER = 16;
+    public static final String DEFAULT_FILE = "book.bin";
+
+    private LongBuffer entries;
+    private int depth;
+    private int count;
+
+    /**
+     * Create a new OpeningBook object from a buffer of sorted entries
+     * @param entries sorted book entries
+     * @param depth number of moves the book covers
+     */
+    private OpeningBook(LongBuffer entries, int depth)
+    {
+        this.entries = entries;
+        this.depth = depth;
+        count = entries.limit();
+    }
+
+    /**
+     * Loads a book by memory mapping the file, so only the pages that are searched are read
+     * @param file to load
+     * @return the OpeningBook in the file
+     * @throws IOException if the file cannot be read or is not a book
+     */
+    public static OpeningBook load(Path file) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.limit() < HEADER || buffer.getInt(0) != MAGIC)
+            {
+                throw new IOException(file + " is not an opening book");
+            }
+            int depth = buffer.getInt(4);
+            long count = buffer.getLong(8);
+            if (count != (buffer.limit() - HEADER) / Long.BYTES)
+            {
+                throw new IOException(file + " is truncated");
+            }
+            buffer.position(HEADER);
+            return new OpeningBook(buffer.slice().asLongBuffer(), depth);
+        }
+    }
+
+    /**
+     * Sorts the entries and writes them to a book file
+     * @param file to write
+     * @param depth number of moves the book covers
+     * @param bookEntries from entry()
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path file, int depth, long[] bookEntries) throws IOException
+    {
+        long[] sorted = bookEntries.clone();
+        Arrays.sort(sorted);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER + sorted.length * Long.BYTES);
+        buffer.putInt(MAGIC);
+        buffer.putInt(depth);
+        buffer.putLong(sorted.length);
+        buffer.asLongBuffer().put(sorted);
+        buffer.rewind();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            while (buffer.hasRemaining())
+            {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Packs a position into a book entry
+     * @param canonicalKey of the position
+     * @param col best column for the canonical orientation
+     * @param score of the position
+     * @return the book entry
+     */
+    public static long entry(long canonicalKey, int col, int score)
+    {
+        return (canonicalKey << 9) | ((long) (score + 32) << 3) | col;
+    }
+
+    /**
+     * Gets the number of moves the book covers
+     * @return depth of the book
+     */
+    public int getDepth()
+    {
+        return depth;
+    }
+
+    /**
+     * Gets the number of positions in the book
+     * @return count of positions
+     */
+    public int getCount()
+    {
+        return count;
+    }
+
+    /**
+     * Returns the best column for a board position
+     * @param position of the board
+     * @return the best column or -1 if the position is not in the book
+     */
+    public int getMove(Position position)
+    {
+        if (position.getMoves() > depth)
+        {
+            return -1;
+        }
+        long key = position.getKey();
+        long canonical = position.getCanonicalKey();
+        long entry = find(canonical);
+        if (entry == -1)
+        {
+            return -1;
+        }
+        int col = (int) (entry & 0B111);
+        if (key != canonical)
+        {
+            col = COLS - 1 - col;
+        }
+        return col;
+    }
+
+    /**
+     * Returns the score of a board position
+     * @param position of the board
+     * @return the score or Integer.MIN_VALUE if the position is not in the book
+     */
+    public int getScore(Position position)
+    {
+        if (position.getMoves() > depth)
+        {
+            return Integer.MIN_VALUE;
+        }
+        long entry = find(position.getCanonicalKey());
+        if (entry == -1)
+        {
+            return Integer.MIN_VALUE;
+        }
+        return (int) ((entry >>> 3) & 0B111111) - 32;
+    }
+
+    /**
+     * Binary searches the entries for a canonical key
+     * @param canonicalKey to find
+     * @return the entry or -1 if there is no entry
+     */
+    private long find(long canonicalKey)
+    {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high)
+        {
+            int mid = (low + high) >>> 1;
+            long entry = entries.get(mid);
+            long key = entry >>> 9;
+            if (key < canonicalKey)
+            {
+                low = mid + 1;
+            }
+            else if (key > canonicalKey)
+            {
+                high = mid - 1;
+            }
+            else
+            {
+                return entry;
+            }
+        }
+        return -1;
+    }
+}
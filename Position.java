@@ -0,0 +1,459 @@
+
+/**
+ * A Connect-4 position for the solver, stored as two longs with no Swing or AWT dependencies
+ *
+ * The bits of each long are laid out column by column from the bottom left, with an empty bit on top of
+ * every column
+ *
+ *  6 13  20 27 34 41 48
+ * +---------------------+
+ * | 5 12 19 26 33 40 47 |
+ * | 4 11 18 25 32 39 46 |
+ * | 3 10 17 24 31 38 45 |
+ * | 2  9  16 23 30 37 44 |
+ * | 1  8  15 22 29 36 43 |
+ * | 0  7  14 21 28 35 42 |
+ * +---------------------+
+ *
+ * position holds the pieces of the player to move and mask holds every piece, so making a move is
+ * position ^= mask, then adding the new piece to mask. The mirror image of the board is kept up to date
+ * the same way, so the mirrored and canonical keys cost nothing extra to read. Every method is a few
+ * bitwise operations and nothing is allocated after the position is created
+ *
+ *  @author Neil Kakhandiki
+ *  @version October 18, 2026
+ */
+public class Position
+{
+    public static final int ROWS = 6;
+    public static final int COLS = 7;
+    public static final int AREA = ROWS * COLS;
+    public static final long BOTTOM_MASK = bottomMask();
+    public static final long BOARD_MASK = BOTTOM_MASK * ((1L << ROWS) - 1);
+
+    private long position;
+    private long mask;
+    private long mirrorPosition;
+    private long mirrorMask;
+    private int moves;
+    private long[] history;
+
+    /**
+     * Creates a new empty Position
+     * history holds the bit of each move played so it can be undone
+     */
+    public Position()
+    {
+        history = new long[AREA];
+    }
+
+    /**
+     * Creates a copy of another Position so it can be searched without changing the original
+     * @param other position to copy
+     */
+    public Position(Position other)
+    {
+        position = other.position;
+        mask = other.mask;
+        mirrorPosition = other.mirrorPosition;
+        mirrorMask = other.mirrorMask;
+        moves = other.moves;
+        history = other.history.clone();
+    }
+
+    /**
+     * Resets the position to a blank board
+     */
+    public void reset()
+    {
+        position = 0B0L;
+        mask = 0B0L;
+        mirrorPosition = 0B0L;
+        mirrorMask = 0B0L;
+        moves = 0;
+    }
+
+    /**
+     * Sets the position to a board given by its pieces, such as one decoded from a key
+     * The moves that led to the board are not known, so getColumn() and undo() only work for the moves
+     * played after it
+     * @param position pieces of the player to move
+     * @param mask every piece on the board
+     */
+    public void set(long position, long mask)
+    {
+        this.position = position;
+        this.mask = mask;
+        mirrorPosition = mirror(position);
+        mirrorMask = mirror(mask);
+        moves = Long.bitCount(mask);
+    }
+
+    /**
+     * Returns a boolean value if a column is playable
+     * @param col to check
+     * @return boolean if the column is not full
+     */
+    public boolean canPlay(int col)
+    {
+        return (mask & topMask(col)) == 0;
+    }
+
+    /**
+     * Plays a piece in a column, which must be playable
+     * @param col to drop a piece in
+     */
+    public void play(int col)
+    {
+        play((mask + bottomMask(col)) & columnMask(col));
+    }
+
+    /**
+     * Plays a move given as the bit of the cell the piece lands in
+     * @param move a single bit from possible()
+     */
+    public void play(long move)
+    {
+        history[moves] = move;
+        position ^= mask; // switches to the other player's pieces
+        mask |= move;
+        mirrorPosition ^= mirrorMask;
+        mirrorMask |= mirrorMove(move);
+        moves++;
+    }
+
+    /**
+     * Plays a sequence of columns numbered 1 to 7, such as "4453", stopping at the first column that
+     * cannot be played or that would win the game
+     * @param sequence of columns
+     * @return the number of moves played
+     */
+    public int play(String sequence)
+    {
+        for (int i = 0; i < sequence.length(); i++)
+        {
+            int col = sequence.charAt(i) - '1';
+            if (col < 0 || col >= COLS || !canPlay(col) || isWinningMove(col))
+            {
+                return i;
+            }
+            play(col);
+        }
+        return sequence.length();
+    }
+
+    /**
+     * Undoes the previous move
+     */
+    public void undo()
+    {
+        moves--;
+        mask ^= history[moves];
+        position ^= mask;
+        mirrorMask ^= mirrorMove(history[moves]);
+        mirrorPosition ^= mirrorMask;
+    }
+
+    /**
+     * Moves a single bit to the same row of the mirrored column
+     * Column col moves by (COLS - 1 - 2 * col) columns, which never wraps around the long
+     * @param move a single bit
+     * @return the mirrored bit
+     */
+    private static long mirrorMove(long move)
+    {
+        int col = Long.numberOfTrailingZeros(move) / (ROWS + 1);
+        return Long.rotateLeft(move, (COLS - 1 - 2 * col) * (ROWS + 1));
+    }
+
+    /**
+     * Checks if playing a column wins the game for the player to move
+     * @param col to check, which must be playable
+     * @return boolean if the move wins
+     */
+    public boolean isWinningMove(int col)
+    {
+        return (winningPosition() & possible() & columnMask(col)) != 0;
+    }
+
+    /**
+     * Checks if the player to move can win with their next move
+     * @return boolean if there is a winning move
+     */
+    public boolean canWinNext()
+    {
+        return (winningPosition() & possible()) != 0;
+    }
+
+    /**
+     * Gets the cells a piece can be played in, one per column that is not full
+     * @return bitmap of the playable cells
+     */
+    public long possible()
+    {
+        return (mask + BOTTOM_MASK) & BOARD_MASK;
+    }
+
+    /**
+     * Gets the empty cells that would complete four in a row for the player to move
+     * @return bitmap of the winning cells
+     */
+    public long winningPosition()
+    {
+        return computeWinningPosition(position, mask);
+    }
+
+    /**
+     * Gets the empty cells that would complete four in a row for the other player
+     * @return bitmap of the opponent's winning cells
+     */
+    public long opponentWinningPosition()
+    {
+        return computeWinningPosition(position ^ mask, mask);
+    }
+
+    /**
+     * Gets the playable cells that do not let the opponent win on their next move
+     * If the opponent has one winning cell that can be played, blocking it is the only move. If they have
+     * two, every move loses. A cell directly under an opponent's winning cell is never returned
+     * @return bitmap of the non-losing moves, or 0 if every move loses
+     */
+    public long possibleNonLosingMoves()
+    {
+        long possibleMask = possible();
+        long opponentWin = opponentWinningPosition();
+        long forcedMoves = possibleMask & opponentWin;
+        if (forcedMoves != 0)
+        {
+            if ((forcedMoves & (forcedMoves - 1)) != 0) // two threats that cannot both be blocked
+            {
+                return 0;
+            }
+            possibleMask = forcedMoves;
+        }
+        return possibleMask & ~(opponentWin >> 1);
+    }
+
+    /**
+     * Scores a move by the number of winning cells the player to move has after playing it
+     * @param move a single bit from possible()
+     * @return the number of winning cells
+     */
+    public int moveScore(long move)
+    {
+        return Long.bitCount(computeWinningPosition(position | move, mask));
+    }
+
+    /**
+     * Adds the current player's pieces and the mask, which is unique for every position
+     * @return key for a hashtable with the board position
+     */
+    public long getKey()
+    {
+        return position + mask;
+    }
+
+    /**
+     * Gets the key of the mirror image of this position
+     * @return the mirrored key
+     */
+    public long getMirrorKey()
+    {
+        return mirrorPosition + mirrorMask;
+    }
+
+    /**
+     * Gets the key of this position or of its mirror image, whichever is smaller, so a position and its
+     * mirror share one key
+     * @return the canonical key for the position
+     */
+    public long getCanonicalKey()
+    {
+        return Math.min(getKey(), getMirrorKey());
+    }
+
+    /**
+     * Gets the number of moves played
+     * @return the number of moves
+     */
+    public int getMoves()
+    {
+        return moves;
+    }
+
+    /**
+     * Gets the pieces of the player to move
+     * @return bitmap of the current player's pieces
+     */
+    public long getPosition()
+    {
+        return position;
+    }
+
+    /**
+     * Gets every piece on the board
+     * @return bitmap of both players' pieces
+     */
+    public long getMask()
+    {
+        return mask;
+    }
+
+    /**
+     * Gets the pieces of the first or second player
+     * @param player - 0 for the first player or 1 for the second player
+     * @return bitmap of the player's pieces
+     */
+    public long getPlayerBoard(int player)
+    {
+        if ((moves & 1) == player)
+        {
+            return position;
+        }
+        return position ^ mask;
+    }
+
+    /**
+     * Gets the column of a move that was played
+     * @param index of the move, starting at 0
+     * @return the column of the move
+     */
+    public int getColumn(int index)
+    {
+        return Long.numberOfTrailingZeros(history[index]) / (ROWS + 1);
+    }
+
+    /**
+     * Checks if the board is full
+     * @return boolean if every cell has a piece
+     */
+    public boolean isFull()
+    {
+        return moves >= AREA;
+    }
+
+    /**
+     * Checks if there is a four in a row on a bitmap of one player's pieces
+     * @param board - to check if there is a win
+     * @return boolean if a player has won
+     */
+    public static boolean alignment(long board)
+    {
+        long tempBoard = board & (board >> (ROWS + 1)); // horizontal
+        if ((tempBoard & (tempBoard >> (2 * (ROWS + 1)))) != 0)
+        {
+            return true;
+        }
+        tempBoard = board & (board >> ROWS); // diagonal
+        if ((tempBoard & (tempBoard >> (2 * ROWS))) != 0)
+        {
+            return true;
+        }
+        tempBoard = board & (board >> (ROWS + 2)); // diagonal
+        if ((tempBoard & (tempBoard >> (2 * (ROWS + 2)))) != 0)
+        {
+            return true;
+        }
+        tempBoard = board & (board >> 1); // vertical
+        return (tempBoard & (tempBoard >> 2)) != 0;
+    }
+
+    /**
+     * Gets the empty cells that would complete four in a row for a player
+     * @param position bitmap of the player's pieces
+     * @param mask bitmap of every piece
+     * @return bitmap of the winning cells
+     */
+    public static long computeWinningPosition(long position, long mask)
+    {
+        // vertical
+        long result = (position << 1) & (position << 2) & (position << 3);
+
+        // horizontal
+        long pair = (position << (ROWS + 1)) & (position << 2 * (ROWS + 1));
+        result |= pair & (position << 3 * (ROWS + 1));
+        result |= pair & (position >> (ROWS + 1));
+        pair = (position >> (ROWS + 1)) & (position >> 2 * (ROWS + 1));
+        result |= pair & (position << (ROWS + 1));
+        result |= pair & (position >> 3 * (ROWS + 1));
+
+        // diagonal 1
+        pair = (position << ROWS) & (position << 2 * ROWS);
+        result |= pair & (position << 3 * ROWS);
+        result |= pair & (position >> ROWS);
+        pair = (position >> ROWS) & (position >> 2 * ROWS);
+        result |= pair & (position << ROWS);
+        result |= pair & (position >> 3 * ROWS);
+
+        // diagonal 2
+        pair = (position << (ROWS + 2)) & (position << 2 * (ROWS + 2));
+        result |= pair & (position << 3 * (ROWS + 2));
+        result |= pair & (position >> (ROWS + 2));
+        pair = (position >> (ROWS + 2)) & (position >> 2 * (ROWS + 2));
+        result |= pair & (position << (ROWS + 2));
+        result |= pair & (position >> 3 * (ROWS + 2));
+
+        return result & (BOARD_MASK ^ mask);
+    }
+
+    /**
+     * Mirrors a bitboard or key from left to right by reversing the order of its columns
+     * A key can be mirrored directly because adding the mask never carries into the next column
+     * @param bits to mirror
+     * @return the mirrored bits
+     */
+    public static long mirror(long bits)
+    {
+        long result = 0B0L;
+        for (int col = 0; col < COLS; col++)
+        {
+            long column = (bits >>> (col * (ROWS + 1))) & 0B1111111L;
+            result |= column << ((COLS - 1 - col) * (ROWS + 1));
+        }
+        return result;
+    }
+
+    /**
+     * Gets the bit of the top cell in a column
+     * @param col of the cell
+     * @return bitmap of the top cell
+     */
+    public static long topMask(int col)
+    {
+        return (1L << (ROWS - 1)) << col * (ROWS + 1);
+    }
+
+    /**
+     * Gets the bit of the bottom cell in a column
+     * @param col of the cell
+     * @return bitmap of the bottom cell
+     */
+    public static long bottomMask(int col)
+    {
+        return 1L << col * (ROWS + 1);
+    }
+
+    /**
+     * Gets the bits of every cell in a column
+     * @param col of the cells
+     * @return bitmap of the column
+     */
+    public static long columnMask(int col)
+    {
+        return ((1L << ROWS) - 1) << col * (ROWS + 1);
+    }
+
+    /**
+     * Gets the bit of the bottom cell of every column
+     * @return bitmap of the bottom row
+     */
+    private static long bottomMask()
+    {
+        long result = 0B0L;
+        for (int col = 0; col < COLS; col++)
+        {
+            result |= bottomMask(col);
+        }
+        return result;
+    }
+}
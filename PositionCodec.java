@@ -0,0 +1,220 @@
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+
+/**
+ *  Converts positions between move strings, keys and a fixed width binary encoding
+ *
+ *  A move string lists the columns played, numbered 1 to 7, such as "4453". A key is position + mask
+ *  from Position.getKey(), which fits in 49 bits since adding the mask never carries into the next
+ *  column. The binary encoding is the key as 8 big-endian bytes, so positions can be read from a buffer
+ *  at a fixed offset with no parsing. A key holds the pieces but not the order they were played in, so
+ *  keyToMoves() searches for an order that reaches them
+ *
+ *  @author Neil Kakhandiki
+ *  @version October 18, 2026
+ */
+public class PositionCodec
+{
+    public static final int BYTES = Long.BYTES;
+    public static final int KEY_BITS = Position.COLS * (Position.ROWS + 1);
+    public static final int COLUMN_BITS = Position.ROWS + 1;
+
+    /**
+     * Gets the move string of a position
+     * @param position of the board, whose moves must all be known
+     * @return the columns played, numbered 1 to 7
+     */
+    public static String toMoves(Position position)
+    {
+        StringBuilder moves = new StringBuilder(position.getMoves());
+        for (int i = 0; i < position.getMoves(); i++)
+        {
+            moves.append((char) ('1' + position.getColumn(i)));
+        }
+        return moves.toString();
+    }
+
+    /**
+     * Plays a move string on a new position
+     * @param moves columns numbered 1 to 7
+     * @return the position after the moves
+     * @throws IllegalArgumentException if a move is not a column, is in a full column or ends the game
+     */
+    public static Position fromMoves(String moves)
+    {
+        Position position = new Position();
+        int played = position.play(moves);
+        if (played != moves.length())
+        {
+            throw new IllegalArgumentException("Bad move " + (played + 1) + " in " + moves);
+        }
+        return position;
+    }
+
+    /**
+     * Gets the key of a move string
+     * @param moves columns numbered 1 to 7
+     * @return the key of the position after the moves
+     * @throws IllegalArgumentException if the moves cannot all be played
+     */
+    public static long toKey(String moves)
+    {
+        return fromMoves(moves).getKey();
+    }
+
+    /**
+     * Sets a position to the board of a key without allocating, for reading many positions in a row
+     * The moves before the key are not known, so only moves played after it can be undone
+     * @param key from Position.getKey()
+     * @param position to set
+     * @throws IllegalArgumentException if the key is not a position
+     */
+    public static void fromKey(long key, Position position)
+    {
+        if (key >>> KEY_BITS != 0)
+        {
+            throw new IllegalArgumentException("Bad key " + key);
+        }
+        long pieces = 0B0L;
+        long mask = 0B0L;
+        for (int col = 0; col < Position.COLS; col++)
+        {
+            // a column of h pieces holds pieces + 2^h - 1, which is between 2^h - 1 and 2^(h+1) - 2
+            long column = (key >>> (col * COLUMN_BITS)) & ((1L << COLUMN_BITS) - 1);
+            int height = 63 - Long.numberOfLeadingZeros(column + 1);
+            if (height > Position.ROWS)
+            {
+                throw new IllegalArgumentException("Bad key " + key);
+            }
+            long columnMask = (1L << height) - 1;
+            pieces |= (column - columnMask) << (col * COLUMN_BITS);
+            mask |= columnMask << (col * COLUMN_BITS);
+        }
+        int moves = Long.bitCount(mask);
+        if (Long.bitCount(pieces) != moves / 2)
+        {
+            throw new IllegalArgumentException("Bad key " + key); // the players' piece counts do not match
+        }
+        position.set(pieces, mask);
+    }
+
+    /**
+     * Creates a position from a key
+     * @param key from Position.getKey()
+     * @return a new position whose moves before the key are not known
+     * @throws IllegalArgumentException if the key is not a position
+     */
+    public static Position fromKey(long key)
+    {
+        Position position = new Position();
+        fromKey(key, position);
+        return position;
+    }
+
+    /**
+     * Finds a move string that reaches the board of a key without either player winning before its end
+     * Pieces are taken off the top of the columns, last player first, and an order that gets stuck is
+     * not tried again
+     * @param key from Position.getKey()
+     * @return the columns played, numbered 1 to 7, or null if no game reaches the board
+     * @throws IllegalArgumentException if the key is not a position
+     */
+    public static String keyToMoves(long key)
+    {
+        Position position = fromKey(key);
+        if (Position.alignment(position.getPosition())
+            || Position.alignment(position.getPosition() ^ position.getMask()))
+        {
+            return null; // a finished game cannot be played by a move string
+        }
+        char[] moves = new char[position.getMoves()];
+        if (!unplay(position.getPosition(), position.getMask(), moves, new HashSet<Long>()))
+        {
+            return null;
+        }
+        return new String(moves);
+    }
+
+    /**
+     * Takes off the top piece of the player who moved last, in each column it can come from, until the
+     * board is empty
+     * @param pieces of the player to move
+     * @param mask every piece on the board
+     * @param moves filled in from the end with the columns taken off
+     * @param stuck masks already found to have no order, since a mask fixes the pieces left
+     * @return boolean if the board can be emptied
+     */
+    private static boolean unplay(long pieces, long mask, char[] moves, HashSet<Long> stuck)
+    {
+        if (mask == 0)
+        {
+            return true;
+        }
+        if (stuck.contains(mask))
+        {
+            return false;
+        }
+        long last = pieces ^ mask; // pieces of the player who moved last
+        for (int col = 0; col < Position.COLS; col++)
+        {
+            long column = mask & Position.columnMask(col);
+            if (column != 0)
+            {
+                long top = Long.highestOneBit(column);
+                long before = last ^ top; // the previous player to move
+                if ((last & top) != 0 && !Position.alignment(before) && !Position.alignment(pieces))
+                {
+                    moves[Long.bitCount(mask) - 1] = (char) ('1' + col);
+                    if (unplay(before, mask ^ top, moves, stuck))
+                    {
+                        return true;
+                    }
+                }
+            }
+        }
+        stuck.add(mask);
+        return false;
+    }
+
+    /**
+     * Writes a key as the fixed width encoding at the buffer's position
+     * @param key from Position.getKey()
+     * @param buffer to write to
+     */
+    public static void encode(long key, ByteBuffer buffer)
+    {
+        buffer.putLong(key);
+    }
+
+    /**
+     * Reads a key from the fixed width encoding at the buffer's position
+     * @param buffer to read from
+     * @return the key
+     */
+    public static long decode(ByteBuffer buffer)
+    {
+        return buffer.getLong();
+    }
+
+    /**
+     * Encodes a key as fixed width bytes
+     * @param key from Position.getKey()
+     * @return BYTES bytes of the key
+     */
+    public static byte[] toBytes(long key)
+    {
+        byte[] bytes = new byte[BYTES];
+        encode(key, ByteBuffer.wrap(bytes));
+        return bytes;
+    }
+
+    /**
+     * Decodes a key from fixed width bytes
+     * @param bytes from toBytes()
+     * @return the key
+     */
+    public static long fromBytes(byte[] bytes)
+    {
+        return decode(ByteBuffer.wrap(bytes));
+    }
+}
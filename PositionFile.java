@@ -0,0 +1,204 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ *  A set of positions in a memory-mapped binary file, for tools that read millions of positions
+ *
+ *  The file is a 16 byte header (magic number, version, position count) followed by the key of each
+ *  position in the fixed width encoding of PositionCodec. Keys are read straight from the mapped pages
+ *  at a fixed offset, so reading a position is one load and nothing is parsed or allocated
+ *
+ *  Run as "java PositionFile moves.txt positions.bin" to convert move strings, one per line, into a
+ *  position file, or "java PositionFile positions.bin" to print a position file as move strings
+ *
+ *  @author Neil Kakhandiki
+ *  @version October 18, 2026
+ */
+public class PositionFile
+{
+    public static final int MAGIC = 0x43345053; // "C4PS"
+    public static final int VERSION = 1;
+    public static final int HEADER = 16;
+    public static final String EXTENSION = ".bin";
+
+    private LongBuffer keys;
+    private int count;
+
+    /**
+     * Create a new PositionFile object from a buffer of keys
+     * @param keys of the positions
+     */
+    private PositionFile(LongBuffer keys)
+    {
+        this.keys = keys;
+        count = keys.limit();
+    }
+
+    /**
+     * Converts move strings to a position file, or prints a position file as move strings
+     * @param args input file of move strings and output file, or a position file to print
+     * @throws IOException if a file cannot be read or written
+     */
+    public static void main(String args[]) throws IOException
+    {
+        if (args.length == 1)
+        {
+            PositionFile file = open(Paths.get(args[0]));
+            PrintWriter writer = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out)));
+            for (int i = 0; i < file.size(); i++)
+            {
+                String moves = PositionCodec.keyToMoves(file.getKey(i));
+                writer.println(moves == null ? "invalid " + file.getKey(i) : moves);
+            }
+            writer.flush();
+            return;
+        }
+
+        long[] keys = new long[1024];
+        int count = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(args[0])))
+        {
+            String line = reader.readLine();
+            while (line != null)
+            {
+                String moves = line.trim().split("\\s+")[0]; // allows a score or other fields after the moves
+                if (!moves.isEmpty())
+                {
+                    if (count == keys.length)
+                    {
+                        keys = Arrays.copyOf(keys, count * 2);
+                    }
+                    keys[count++] = PositionCodec.toKey(moves);
+                }
+                line = reader.readLine();
+            }
+        }
+        write(Paths.get(args[1]), keys, count);
+        System.err.println("Wrote " + count + " positions to " + args[1]);
+    }
+
+    /**
+     * Opens a position file by memory mapping it, so positions are read straight from the page cache
+     * @param file to open
+     * @return the PositionFile
+     * @throws IOException if the file cannot be read or is not a position file
+     */
+    public static PositionFile open(Path file) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            if (channel.size() > Integer.MAX_VALUE)
+            {
+                throw new IOException(file + " is too large to map");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.limit() < HEADER || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+            {
+                throw new IOException(file + " is not a position file");
+            }
+            long count = buffer.getLong(8);
+            if (count != (buffer.limit() - HEADER) / PositionCodec.BYTES)
+            {
+                throw new IOException(file + " is truncated");
+            }
+            buffer.position(HEADER);
+            return new PositionFile(buffer.slice().asLongBuffer());
+        }
+    }
+
+    /**
+     * Checks if a file name is a position file rather than a text file of move strings
+     * @param name of the file
+     * @return boolean if it ends with EXTENSION
+     */
+    public static boolean isPositionFile(String name)
+    {
+        return name.endsWith(EXTENSION);
+    }
+
+    /**
+     * Writes keys to a position file in order
+     * @param file to write
+     * @param positionKeys from Position.getKey()
+     * @param count number of keys to write from the start of positionKeys
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path file, long[] positionKeys, int count) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putLong(count);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            for (int i = 0; i < count; i++)
+            {
+                if (buffer.remaining() < PositionCodec.BYTES)
+                {
+                    write(channel, buffer);
+                }
+                PositionCodec.encode(positionKeys[i], buffer);
+            }
+            write(channel, buffer);
+        }
+    }
+
+    /**
+     * Writes the contents of a buffer to a channel and clears the buffer
+     * @param channel to write to
+     * @param buffer to write
+     * @throws IOException if the channel cannot be written
+     */
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException
+    {
+        buffer.flip();
+        while (buffer.hasRemaining())
+        {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Gets the number of positions in the file
+     * @return the position count
+     */
+    public int size()
+    {
+        return count;
+    }
+
+    /**
+     * Gets the key of a position
+     * @param index of the position, from 0
+     * @return the key
+     */
+    public long getKey(int index)
+    {
+        return keys.get(index);
+    }
+
+    /**
+     * Sets a position to one in the file without allocating
+     * @param index of the position, from 0
+     * @param position to set, whose moves before it are not known
+     * @throws IllegalArgumentException if the stored key is not a position
+     */
+    public void get(int index, Position position)
+    {
+        PositionCodec.fromKey(keys.get(index), position);
+    }
+}
@@ -0,0 +1,329 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ *  Checks that the solver still finds the exact score of known positions, and that its node counts, and
+ *  optionally its solve times, have not grown since a baseline recorded at an earlier commit
+ *
+ *  The corpus is grouped into tiers by difficulty and starts as the end-game, middle-game and early-game
+ *  positions of Benchmark. Each position is solved with nullWindowSearch() from an empty table, and any
+ *  wrong score fails the check. The node totals of each tier may only grow by NODE_TOLERANCE. Node
+ *  counts do not depend on the machine, so they are the gate of the committed baseline, which has one
+ *  line per position, "tier moves score nodes". Positions are added to the corpus by adding lines to it
+ *  and recording again
+ *  RegressionCheckTest runs the scores and node counts against the committed baseline in "mvn test", so
+ *  the build fails on either regression. Times are out of scope for that gate, because they depend on the
+ *  machine. They are only compared here when the baseline was recorded with them, as
+ *  "tier moves score nodes micros" lines. Such a baseline is kept per machine in LOCAL_BASELINE, which
+ *  is not committed. A time is the fastest of RUNS runs after one run to warm up, and the time totals of
+ *  each tier may grow by the looser TIME_TOLERANCE
+ *
+ *  Run as "java RegressionCheck [baselineFile] [nodeTolerance] [timeTolerance]", with tolerances in
+ *  percent, which exits with status 1 if the check fails. Run as "java RegressionCheck record
+ *  [baselineFile]" to record the committed baseline after a change meant to alter node counts, and as
+ *  "java RegressionCheck record-times [baselineFile]" to record a baseline with times on this machine,
+ *  by default in LOCAL_BASELINE. Check against it with "java RegressionCheck " + LOCAL_BASELINE
+ *
+ *  @author Neil Kakhandiki
+ *  @version October 18, 2026
+ */
+public class RegressionCheck
+{
+    public static final String DEFAULT_BASELINE = "regression-baseline.txt";
+    public static final String LOCAL_BASELINE = "regression-baseline.local.txt";
+    public static final double NODE_TOLERANCE = 0.02;
+    public static final double TIME_TOLERANCE = 0.25;
+    public static final int RUNS = 3;
+
+    /**
+     * Checks the solver against the baseline, or records the baseline
+     * @param args "record" or "record-times" and the baseline file, or the baseline file and tolerances in
+     *        percent
+     * @throws IOException if the baseline cannot be read or written
+     */
+    public static void main(String args[]) throws IOException
+    {
+        boolean recordTimes = args.length > 0 && args[0].equals("record-times");
+        boolean record = recordTimes || (args.length > 0 && args[0].equals("record"));
+        int first = record ? 1 : 0;
+        Path baseline = Paths.get(args.length > first ? args[first]
+            : recordTimes ? LOCAL_BASELINE : DEFAULT_BASELINE);
+        double nodeTolerance = NODE_TOLERANCE;
+        double timeTolerance = TIME_TOLERANCE;
+        if (!record && args.length > 1)
+        {
+            nodeTolerance = Double.parseDouble(args[1]) / 100;
+        }
+        if (!record && args.length > 2)
+        {
+            timeTolerance = Double.parseDouble(args[2]) / 100;
+        }
+
+        List<String[]> corpus = null;
+        if (Files.exists(baseline))
+        {
+            corpus = readBaseline(baseline);
+        }
+        else if (record)
+        {
+            corpus = benchmarkCorpus();
+        }
+        else
+        {
+            System.out.println("No baseline " + baseline + ", run \"java RegressionCheck record\" first");
+            System.exit(1);
+        }
+
+        boolean timed = recordTimes || (!record && hasTimes(corpus));
+        long[] nodes = new long[corpus.size()];
+        long[] micros = timed ? new long[corpus.size()] : null;
+        int wrong = solve(corpus, nodes, micros);
+        if (wrong > 0)
+        {
+            System.out.println("FAIL " + wrong + " wrong scores");
+            System.exit(1);
+        }
+        if (record)
+        {
+            writeBaseline(baseline, corpus, nodes, micros);
+            System.out.println("Recorded " + corpus.size() + " positions to " + baseline);
+            return;
+        }
+        if (!timed)
+        {
+            System.out.println("No times in " + baseline + ", comparing node counts only");
+        }
+        if (!compare(corpus, nodes, micros, nodeTolerance, timeTolerance))
+        {
+            System.exit(1);
+        }
+        System.out.println("PASS");
+    }
+
+    /**
+     * Gets the positions of Benchmark with their tiers and scores, without nodes or times
+     * @return fields "tier moves score" of each position
+     */
+    private static List<String[]> benchmarkCorpus()
+    {
+        List<String[]> corpus = new ArrayList<String[]>();
+        addTier(corpus, "end-game", Benchmark.END_GAME);
+        addTier(corpus, "middle-game", Benchmark.MIDDLE_GAME);
+        addTier(corpus, "early-game", Benchmark.EARLY_GAME);
+        return corpus;
+    }
+
+    /**
+     * Adds the positions of a tier to a corpus
+     * @param corpus to add to
+     * @param tier name of the tier
+     * @param positions "moves score" of each position
+     */
+    private static void addTier(List<String[]> corpus, String tier, String[] positions)
+    {
+        for (String line : positions)
+        {
+            String[] parts = line.split(" ");
+            corpus.add(new String[] {tier, parts[0], parts[1]});
+        }
+    }
+
+    /**
+     * Checks if every position of a baseline has a recorded time
+     * @param corpus fields of each position from the baseline
+     * @return boolean if every position has "tier moves score nodes micros"
+     */
+    private static boolean hasTimes(List<String[]> corpus)
+    {
+        for (String[] fields : corpus)
+        {
+            if (fields.length < 5)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads a baseline file, skipping blank lines and lines starting with #
+     * @param file to read
+     * @return fields "tier moves score nodes", and micros if recorded, of each position
+     * @throws IOException if the file cannot be read or a line is malformed
+     */
+    static List<String[]> readBaseline(Path file) throws IOException
+    {
+        List<String[]> corpus = new ArrayList<String[]>();
+        for (String line : Files.readAllLines(file))
+        {
+            line = line.trim();
+            if (!line.isEmpty() && !line.startsWith("#"))
+            {
+                String[] fields = line.split("\\s+");
+                if (fields.length < 3)
+                {
+                    throw new IOException("Bad baseline line: " + line);
+                }
+                corpus.add(fields);
+            }
+        }
+        return corpus;
+    }
+
+    /**
+     * Writes a baseline file
+     * @param file to write
+     * @param corpus fields of each position, starting with "tier moves score"
+     * @param nodes searched for each position
+     * @param micros fastest solve time of each position, or null to leave times out
+     * @throws IOException if the file cannot be written
+     */
+    private static void writeBaseline(Path file, List<String[]> corpus, long[] nodes, long[] micros)
+        throws IOException
+    {
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file)))
+        {
+            if (micros == null)
+            {
+                writer.println("# tier moves score nodes, written by \"java RegressionCheck record\"");
+            }
+            else
+            {
+                writer.println("# tier moves score nodes micros on one machine, written by \"java RegressionCheck "
+                    + "record-times\"");
+            }
+            for (int i = 0; i < corpus.size(); i++)
+            {
+                String[] fields = corpus.get(i);
+                writer.println(fields[0] + " " + fields[1] + " " + fields[2] + " " + nodes[i]
+                    + (micros == null ? "" : " " + micros[i]));
+            }
+        }
+    }
+
+    /**
+     * Solves every position of a corpus from an empty table, printing any wrong score
+     * @param corpus fields of each position, starting with "tier moves score"
+     * @param nodes filled in with the nodes searched for each position
+     * @param micros filled in with the fastest solve time of each position, or null to solve each position
+     *        only once without timing it
+     * @return the number of wrong scores
+     */
+    static int solve(List<String[]> corpus, long[] nodes, long[] micros)
+    {
+        BoardSolver solver = new BoardSolver();
+        int runs = micros == null ? 0 : RUNS;
+        int wrong = 0;
+        for (int i = 0; i < corpus.size(); i++)
+        {
+            String[] fields = corpus.get(i);
+            int expected = Integer.parseInt(fields[2]);
+            for (int run = -1; run < runs; run++) // one run warms up
+            {
+                Position position = PositionCodec.fromMoves(fields[1]);
+                solver.reset();
+                long start = System.nanoTime();
+                int score = solver.nullWindowSearch(position);
+                long elapsed = (System.nanoTime() - start) / 1000;
+                if (run < 0 && score != expected)
+                {
+                    System.out.println("WRONG SCORE " + fields[0] + " " + fields[1] + ": expected " + expected
+                        + ", got " + score);
+                    wrong++;
+                }
+                if (run == 0)
+                {
+                    micros[i] = elapsed;
+                }
+                else if (run > 0)
+                {
+                    micros[i] = Math.min(micros[i], elapsed);
+                }
+                nodes[i] = solver.getNodeCount();
+            }
+        }
+        return wrong;
+    }
+
+    /**
+     * Compares the node totals of each tier with the baseline, and the time totals if times were measured,
+     * printing one line per tier
+     * @param corpus fields "tier moves score nodes", and micros if timed, of each position from the baseline
+     * @param nodes searched for each position now
+     * @param micros fastest solve time of each position now, or null to compare node counts only
+     * @param nodeTolerance fraction the nodes of a tier may grow by
+     * @param timeTolerance fraction the time of a tier may grow by
+     * @return boolean if every tier is within the tolerances
+     */
+    static boolean compare(List<String[]> corpus, long[] nodes, long[] micros, double nodeTolerance,
+        double timeTolerance)
+    {
+        // totals of each tier: baseline nodes, nodes, baseline micros, micros
+        LinkedHashMap<String, long[]> tiers = new LinkedHashMap<String, long[]>();
+        for (int i = 0; i < corpus.size(); i++)
+        {
+            String[] fields = corpus.get(i);
+            if (fields.length < 4)
+            {
+                System.out.println("FAIL " + fields[1] + " has no baseline, run \"java RegressionCheck record\"");
+                return false;
+            }
+            long[] totals = tiers.computeIfAbsent(fields[0], tier -> new long[4]);
+            totals[0] += Long.parseLong(fields[3]);
+            totals[1] += nodes[i];
+            if (micros != null)
+            {
+                totals[2] += Long.parseLong(fields[4]);
+                totals[3] += micros[i];
+            }
+        }
+
+        boolean pass = true;
+        String header = String.format("%-14s %14s %14s %8s", "tier", "base nodes", "nodes", "change");
+        if (micros != null)
+        {
+            header += String.format(" %12s %12s %8s", "base ms", "ms", "change");
+        }
+        System.out.println(header);
+        for (String tier : tiers.keySet())
+        {
+            long[] totals = tiers.get(tier);
+            double nodeChange = (double) totals[1] / totals[0] - 1;
+            String line = String.format("%-14s %14d %14d %+7.1f%%", tier, totals[0], totals[1], 100 * nodeChange);
+            String result = "";
+            if (nodeChange > nodeTolerance)
+            {
+                result += " NODES REGRESSED";
+                pass = false;
+            }
+            if (micros != null)
+            {
+                double timeChange = (double) totals[3] / totals[2] - 1;
+                line += String.format(" %12.3f %12.3f %+7.1f%%", totals[2] / 1e3, totals[3] / 1e3,
+                    100 * timeChange);
+                if (timeChange > timeTolerance)
+                {
+                    result += " TIME REGRESSED";
+                    pass = false;
+                }
+            }
+            System.out.println(line + result);
+        }
+        if (!pass)
+        {
+            String allowed = String.format("FAIL nodes may grow %.1f%%", 100 * nodeTolerance);
+            if (micros != null)
+            {
+                allowed += String.format(" and time %.1f%%", 100 * timeTolerance);
+            }
+            System.out.println(allowed);
+        }
+        return pass;
+    }
+}
@@ -0,0 +1,55 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ *  A Java Flight Recorder event for each root column scored by BoardSolver.solve(), whose duration is the
+ *  time scoring the column
+ *
+ *  @author Neil Kakhandiki
+ *  @version October 18, 2026
+ */
+@Name("connect4.RootMove")
+@Label("Root Move")
+@Category("Connect4")
+@Description("A column scored at the root of a solve")
+@StackTrace(false)
+public class RootMoveEvent extends jdk.jfr.Event
+{
+    @Label("Key")
+    @Description("Position.getKey() of the root position")
+    long key;
+
+    @Label("Column")
+    @Description("Column scored, from 0")
+    int column;
+
+    @Label("Score")
+    @Description("Exact score of the column, or an upper bound if it is not better than the best so far")
+    int score;
+
+    @Label("Exact")
+    boolean exact;
+
+    @Label("Nodes")
+    @Description("Positions searched to score the column")
+    long nodes;
+
+    @Label("Probes")
+    @Description("Transposition table probes while scoring the column")
+    long probes;
+
+    @Label("Hits")
+    @Description("Probes that found an entry for the position")
+    long hits;
+
+    @Label("Collisions")
+    @Description("Probes that found a full bucket without the position")
+    long collisions;
+
+    @Label("Overwrites")
+    @Description("Stores that replaced an entry of another position")
+    long overwrites;
+}
@@ -0,0 +1,20 @@
+
+/**
+ *  Thrown inside negamax to unwind a search that has been told to stop.
+ *  Nothing is stored in the transposition table on the way out, so only finished results are shared
+ *
+ *  @author Neil Kakhandiki
+ *  @version October 18, 2026
+ */
+public class SearchAbortedException extends RuntimeException
+{
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Create a new SearchAbortedException without a stack trace, since it is thrown to unwind a search
+     */
+    public SearchAbortedException()
+    {
+        super("search stopped", null, false, false);
+    }
+}
@@ -0,0 +1,46 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ *  A Java Flight Recorder event sampling the state of negamax() every BoardSolver.TRACE_SAMPLE_NODES
+ *  positions, only while tracing is switched on with BoardSolver.setTracing() or through JMX
+ *
+ *  @author Neil Kakhandiki
+ *  @version October 18, 2026
+ */
+@Name("connect4.SearchTrace")
+@Label("Search Trace")
+@Category("Connect4")
+@Description("A sample of the search tree taken during negamax()")
+@StackTrace(false)
+public class SearchTraceEvent extends jdk.jfr.Event
+{
+    @Label("Key")
+    @Description("Position.getKey() of the position being searched")
+    long key;
+
+    @Label("Depth")
+    @Description("Moves below the root of the solve")
+    int depth;
+
+    @Label("Alpha")
+    int alpha;
+
+    @Label("Beta")
+    int beta;
+
+    @Label("Nodes")
+    @Description("Positions searched by this solver so far")
+    long nodes;
+
+    @Label("Hit Rate")
+    @Description("Fraction of table probes so far that found an entry, or -1 if they are not counted")
+    double hitRate;
+
+    @Label("Cutoff Rate")
+    @Description("Fraction of positions so far whose moves caused a beta cutoff, or -1 if not counted")
+    double cutoffRate;
+}
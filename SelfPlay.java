@@ -0,0 +1,350 @@
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *  Plays the engine against itself, or against a weaker setting of itself, over many games in parallel
+ *
+ *  Each game starts from a random opening and is played to the end by two sides, A and B, that take
+ *  turns going first. A side is set with a list such as "megabytes=16,budget=500,ordering=static":
+ *  megabytes    size of its transposition table, at least 2
+ *  budget       most milliseconds per move, or 0 for no limit
+ *  ordering     dynamic or static move ordering
+ *  window       null for null-window searches or full for one full-window search per column
+ *  book         on to answer from book.bin if it exists, or off
+ *  depth        milliseconds to search positions too deep to solve exactly, or 0 to always solve exactly
+ *
+ *  One line is printed per game in order, then the results, throughput, and per side the latency
+ *  percentiles and nodes per move. Every move can also be logged as "game ply side col micros nodes"
+ *
+ *  @author Neil Kakhandiki
+ *  @version October 18, 2026
+ */
+public class SelfPlay
+{
+    public static final String DEFAULT_SETTINGS = "megabytes=16,budget=1000";
+    public static final long SEED = 20210520L;
+    public static final String[] SETTINGS = {"megabytes", "budget", "ordering", "window", "book", "depth"};
+    public static final String[] DEFAULTS = {"16", "0", "dynamic", "null", "on", "0"};
+
+    private int openingMoves;
+    private List<Map<String, String>> settings; // the parsed settings of each side
+    private OpeningBook book;
+    private List<ThreadLocal<BoardSolver>> solvers;
+    private PrintWriter moveLog;
+    private LatencyRecorder[] latency;
+    private LongAdder[] nodes;
+    private LongAdder[] moves;
+    private LongAdder[] wins;
+    private LongAdder draws;
+
+    /**
+     * Create a new SelfPlay object
+     * @param openingMoves number of random moves before the sides start playing
+     * @param settingsA settings of side A
+     * @param settingsB settings of side B
+     * @param book opening book for the sides that use one, or null
+     * @param moveLog to write every move to, or null
+     */
+    public SelfPlay(int openingMoves, String settingsA, String settingsB, OpeningBook book, PrintWriter moveLog)
+    {
+        this.openingMoves = openingMoves;
+        settings = new ArrayList<Map<String, String>>();
+        settings.add(parseSettings(settingsA)); // reports bad settings before any game starts
+        settings.add(parseSettings(settingsB));
+        this.book = book;
+        this.moveLog = moveLog;
+        solvers = new ArrayList<ThreadLocal<BoardSolver>>();
+        latency = new LatencyRecorder[2];
+        nodes = new LongAdder[2];
+        moves = new LongAdder[2];
+        wins = new LongAdder[2];
+        for (int side = 0; side < 2; side++)
+        {
+            Map<String, String> sideSettings = settings.get(side);
+            solvers.add(ThreadLocal.withInitial(() -> createSolver(sideSettings)));
+            latency[side] = new LatencyRecorder();
+            nodes[side] = new LongAdder();
+            moves[side] = new LongAdder();
+            wins[side] = new LongAdder();
+        }
+        draws = new LongAdder();
+    }
+
+    /**
+     * Runs the games and prints the results
+     * @param args optionally games, threads, opening moves, settings of A, settings of B and a move log file
+     * @throws IOException if the opening book or move log cannot be opened
+     * @throws InterruptedException if interrupted while waiting for a game
+     */
+    public static void main(String args[]) throws IOException, InterruptedException
+    {
+        int games = 20;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int openingMoves = 8;
+        String settingsA = DEFAULT_SETTINGS;
+        String settingsB = DEFAULT_SETTINGS;
+        if (args.length > 0)
+        {
+            games = Integer.parseInt(args[0]);
+        }
+        if (args.length > 1)
+        {
+            threads = Integer.parseInt(args[1]);
+        }
+        if (args.length > 2)
+        {
+            openingMoves = Integer.parseInt(args[2]);
+        }
+        if (args.length > 3)
+        {
+            settingsA = args[3];
+        }
+        if (args.length > 4)
+        {
+            settingsB = args[4];
+        }
+        PrintWriter moveLog = null;
+        if (args.length > 5)
+        {
+            moveLog = new PrintWriter(new FileWriter(args[5]));
+        }
+        OpeningBook book = null;
+        Path bookFile = Paths.get(OpeningBook.DEFAULT_FILE);
+        if (Files.exists(bookFile))
+        {
+            book = OpeningBook.load(bookFile);
+        }
+
+        SelfPlay selfPlay = new SelfPlay(openingMoves, settingsA, settingsB, book, moveLog);
+        System.out.println("A: " + settingsA);
+        System.out.println("B: " + settingsB);
+        selfPlay.run(games, threads);
+        if (moveLog != null)
+        {
+            moveLog.close();
+        }
+    }
+
+    /**
+     * Parses and checks a list of settings, filling in the default of each setting not given
+     * @param sideSettings comma separated name=value pairs, such as "megabytes=16,budget=500"
+     * @return the value of every setting by name, in the order of SETTINGS
+     * @throws IllegalArgumentException if a pair, name or value is not valid
+     */
+    private static Map<String, String> parseSettings(String sideSettings)
+    {
+        Map<String, String> values = new LinkedHashMap<String, String>();
+        for (int i = 0; i < SETTINGS.length; i++)
+        {
+            values.put(SETTINGS[i], DEFAULTS[i]);
+        }
+        for (String pair : sideSettings.split(","))
+        {
+            if (pair.trim().isEmpty())
+            {
+                continue;
+            }
+            String[] parts = pair.split("=", 2);
+            if (parts.length != 2 || !values.containsKey(parts[0].trim()))
+            {
+                throw new IllegalArgumentException("Bad setting: " + pair);
+            }
+            values.put(parts[0].trim(), parts[1].trim());
+        }
+        checkNumber(values, "megabytes", 2, Integer.MAX_VALUE);
+        checkNumber(values, "budget", 0, Long.MAX_VALUE);
+        checkNumber(values, "depth", 0, Long.MAX_VALUE);
+        checkChoice(values, "ordering", "dynamic", "static");
+        checkChoice(values, "window", "null", "full");
+        checkChoice(values, "book", "on", "off");
+        return values;
+    }
+
+    /**
+     * Checks a setting is a whole number in a range
+     * @param values of the settings by name
+     * @param name of the setting
+     * @param min smallest value allowed
+     * @param max largest value allowed
+     * @throws IllegalArgumentException if the value is not a number or is out of the range
+     */
+    private static void checkNumber(Map<String, String> values, String name, long min, long max)
+    {
+        long value = Long.parseLong(values.get(name)); // NumberFormatException is an IllegalArgumentException
+        if (value < min || value > max)
+        {
+            throw new IllegalArgumentException("Bad setting: " + name + "=" + values.get(name));
+        }
+    }
+
+    /**
+     * Checks a setting is one of two choices
+     * @param values of the settings by name
+     * @param name of the setting
+     * @param first choice
+     * @param second choice
+     * @throws IllegalArgumentException if the value is neither choice
+     */
+    private static void checkChoice(Map<String, String> values, String name, String first, String second)
+    {
+        String value = values.get(name);
+        if (!value.equals(first) && !value.equals(second))
+        {
+            throw new IllegalArgumentException("Bad setting: " + name + "=" + value);
+        }
+    }
+
+    /**
+     * Creates a solver from parsed settings
+     * @param sideSettings from parseSettings()
+     * @return the solver, whose time budget is read with getBudget()
+     */
+    private BoardSolver createSolver(Map<String, String> sideSettings)
+    {
+        BoardSolver solver = new BoardSolver(Integer.parseInt(sideSettings.get("megabytes")));
+        solver.setDynamicOrdering(sideSettings.get("ordering").equals("dynamic"));
+        solver.setNullWindow(sideSettings.get("window").equals("null"));
+        solver.setDepthLimited(Long.parseLong(sideSettings.get("depth")));
+        if (sideSettings.get("book").equals("on"))
+        {
+            solver.setBook(book);
+        }
+        return solver;
+    }
+
+    /**
+     * Gets the time budget per move of a side
+     * @param sideSettings from parseSettings()
+     * @return the budget in milliseconds, or 0 for no limit
+     */
+    private static long getBudget(Map<String, String> sideSettings)
+    {
+        return Long.parseLong(sideSettings.get("budget"));
+    }
+
+    /**
+     * Plays every game on a pool of threads, printing each game in order as it finishes and then the totals
+     * @param games to play
+     * @param threads to play on
+     * @throws InterruptedException if interrupted while waiting for a game
+     */
+    public void run(int games, int threads) throws InterruptedException
+    {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<String>> results = new ArrayList<Future<String>>();
+        long start = System.nanoTime();
+        for (int g = 0; g < games; g++)
+        {
+            int game = g;
+            results.add(pool.submit(() -> play(game)));
+        }
+        for (Future<String> result : results)
+        {
+            try
+            {
+                System.out.println(result.get());
+            }
+            catch (ExecutionException e)
+            {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        pool.shutdown();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long totalMoves = moves[0].sum() + moves[1].sum();
+        System.out.println(String.format("A wins %d, B wins %d, draws %d", wins[0].sum(), wins[1].sum(),
+            draws.sum()));
+        System.out.println(String.format("%d games and %d moves in %.3f s (%.2f games/s, %.1f moves/s) on %d "
+            + "threads", games, totalMoves, seconds, games / seconds, totalMoves / seconds, threads));
+        for (int side = 0; side < 2; side++)
+        {
+            String name = side == 0 ? "A" : "B";
+            System.out.println(String.format("%s nodes/move %.0f, latency %s", name,
+                (double) nodes[side].sum() / Math.max(moves[side].sum(), 1), latency[side]));
+        }
+    }
+
+    /**
+     * Plays one game from a random opening, with A going first in even games and B in odd games
+     * @param game number, which also seeds the opening
+     * @return "game n first opening moves result", where result is the winning side or draw
+     */
+    private String play(int game)
+    {
+        Position position = new Position();
+        Random random = new Random(SEED + game);
+        int tries = 0;
+        while (position.getMoves() < openingMoves && tries < 1000)
+        {
+            int col = random.nextInt(Position.COLS);
+            if (position.canPlay(col) && !position.isWinningMove(col)
+                && (position.possibleNonLosingMoves() & Position.columnMask(col)) != 0)
+            {
+                position.play(col);
+            }
+            tries++;
+        }
+        int opening = position.getMoves();
+
+        int first = game % 2;
+        String result = "draw";
+        while (!position.isFull())
+        {
+            int side = (position.getMoves() - opening + first) % 2;
+            BoardSolver solver = solvers.get(side).get();
+            solver.resetNodeCount();
+            long started = System.nanoTime();
+            int col = solver.solve(position, getBudget(settings.get(side)));
+            long elapsed = System.nanoTime() - started;
+            latency[side].record(elapsed);
+            nodes[side].add(solver.getNodeCount());
+            moves[side].increment();
+            if (moveLog != null)
+            {
+                synchronized (moveLog)
+                {
+                    moveLog.println(game + " " + position.getMoves() + " " + (side == 0 ? "A" : "B") + " "
+                        + (col + 1) + " " + elapsed / 1000 + " " + solver.getNodeCount());
+                }
+            }
+            boolean win = position.isWinningMove(col);
+            position.play(col);
+            if (win)
+            {
+                result = side == 0 ? "A" : "B";
+                break;
+            }
+        }
+        if (result.equals("draw"))
+        {
+            draws.increment();
+        }
+        else
+        {
+            wins[result.equals("A") ? 0 : 1].increment();
+        }
+
+        StringBuilder columns = new StringBuilder();
+        for (int i = 0; i < position.getMoves(); i++)
+        {
+            columns.append(position.getColumn(i) + 1);
+        }
+        return "game " + game + " " + (first == 0 ? "A" : "B") + " " + columns.substring(0, opening) + " "
+            + columns.substring(opening) + " " + result;
+    }
+}
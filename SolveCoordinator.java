@@ -0,0 +1,469 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *  Solves a position exactly with several worker JVMs on the same host, so a solve is not limited to the
+ *  heap and cores of one process
+ *
+ *  The root is split into work units, the positions reached after every line of a few moves, the same
+ *  root subtrees solve() searches one column at a time. Each unit is sent over a loopback socket to the
+ *  next idle SolveWorker, which finds its exact score. The workers share one transposition table in a
+ *  memory-mapped file, so a position solved in one unit is not solved again in another. The scores are
+ *  then combined back up the split with negamax into the exact score and best column of the root
+ *  Units are searched with a full window instead of the bound of the best column so far, so together
+ *  they search more nodes than one solver, which the extra processes make up for on a deep position
+ *
+ *  Run as "java SolveCoordinator moves [workers] [megabytes] [splitMoves] [tableFile]", or as
+ *  "java SolveCoordinator check [workers]" to compare the scores of CHECK_POSITIONS with one BoardSolver
+ *
+ *  @author Neil Kakhandiki
+ *  @version October 18, 2026
+ */
+public class SolveCoordinator
+{
+    public static final int AREA = Position.AREA;
+    public static final int DEFAULT_SPLIT = 1; // moves from the root to the work units, 2 for more than 7 workers
+    public static final String DEFAULT_TABLE_FILE = "shared-table.bin";
+    public static final int CONNECT_MILLIS = 30000;
+    // roots that can win next, with a reply that can win next, and with neither
+    public static final String[] CHECK_POSITIONS = {"121212", "32353335552754117572", "1734113154524417"};
+
+    private TranspositionTable table;
+    private ServerSocket server;
+    private Process[] processes;
+    private Socket[] sockets;
+    private BufferedReader[] readers;
+    private PrintWriter[] writers;
+    private ExecutorService pool;
+    private int splitMoves;
+    private boolean verbose;
+    private int bestCol;
+    private LongAdder nodes;
+
+    /**
+     * Create a new SolveCoordinator object, creating the shared table and starting its workers
+     * @param tableFile to hold the shared transposition table, which is replaced
+     * @param megabytes of the shared table, less than 2048
+     * @param workers number of worker JVMs to start
+     * @param splitMoves moves from the root to the work units, at least 1
+     * @throws IOException if the table cannot be created or a worker does not connect
+     */
+    public SolveCoordinator(Path tableFile, int megabytes, int workers, int splitMoves) throws IOException
+    {
+        if (workers < 1 || splitMoves < 1)
+        {
+            throw new IllegalArgumentException("workers and splitMoves must be at least 1");
+        }
+        this.splitMoves = splitMoves;
+        table = TranspositionTable.createShared(tableFile, megabytes);
+        nodes = new LongAdder();
+        server = new ServerSocket(0, workers, InetAddress.getLoopbackAddress());
+        server.setSoTimeout(CONNECT_MILLIS);
+        processes = new Process[workers];
+        sockets = new Socket[workers];
+        readers = new BufferedReader[workers];
+        writers = new PrintWriter[workers];
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        try
+        {
+            for (int i = 0; i < workers; i++)
+            {
+                processes[i] = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    "SolveWorker", String.valueOf(server.getLocalPort()), tableFile.toAbsolutePath().toString())
+                    .redirectOutput(ProcessBuilder.Redirect.INHERIT).redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            }
+            for (int i = 0; i < workers; i++)
+            {
+                sockets[i] = server.accept();
+                readers[i] = new BufferedReader(new InputStreamReader(sockets[i].getInputStream()));
+                writers[i] = new PrintWriter(new OutputStreamWriter(sockets[i].getOutputStream()), true);
+            }
+        }
+        catch (IOException e)
+        {
+            close();
+            throw e;
+        }
+        pool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "coordinator-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Solves a position with worker JVMs and prints its score and best column
+     * @param args moves, then optionally workers, megabytes, split moves and the shared table file
+     * @throws IOException if the workers cannot be started or stop before the solve is done
+     */
+    public static void main(String args[]) throws IOException
+    {
+        String moves = args.length > 0 ? args[0] : "";
+        int workers = Runtime.getRuntime().availableProcessors();
+        if (moves.equals("check"))
+        {
+            if (args.length > 1)
+            {
+                workers = Integer.parseInt(args[1]);
+            }
+            if (!check(workers))
+            {
+                System.exit(1);
+            }
+            return;
+        }
+        int megabytes = TranspositionTable.DEFAULT_MEGABYTES;
+        int splitMoves = DEFAULT_SPLIT;
+        String tableFile = DEFAULT_TABLE_FILE;
+        if (args.length > 1)
+        {
+            workers = Integer.parseInt(args[1]);
+        }
+        if (args.length > 2)
+        {
+            megabytes = Integer.parseInt(args[2]);
+        }
+        if (args.length > 3)
+        {
+            splitMoves = Integer.parseInt(args[3]);
+        }
+        if (args.length > 4)
+        {
+            tableFile = args[4];
+        }
+
+        Position position = PositionCodec.fromMoves(moves);
+        SolveCoordinator coordinator = new SolveCoordinator(Paths.get(tableFile), megabytes, workers, splitMoves);
+        try
+        {
+            coordinator.setVerbose(true);
+            long start = System.nanoTime();
+            int score = coordinator.solve(position);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.println(String.format("%s score %d best column %d, %d nodes in %.3f s with %d workers",
+                moves, score, coordinator.getBestCol() + 1, coordinator.getNodeCount(), seconds, workers));
+        }
+        finally
+        {
+            coordinator.close();
+            new File(tableFile).delete();
+        }
+    }
+
+    /**
+     * Solves CHECK_POSITIONS split 1 and 2 moves from the root, and compares each score and the score of
+     * each best column with one BoardSolver
+     * @param workers number of worker JVMs to start
+     * @return boolean if every score matches
+     * @throws IOException if the workers cannot be started or stop before a solve is done
+     */
+    private static boolean check(int workers) throws IOException
+    {
+        boolean pass = true;
+        BoardSolver solver = new BoardSolver();
+        Path tableFile = Files.createTempFile("check-table", ".bin");
+        try
+        {
+            for (int splitMoves = 1; splitMoves <= 2; splitMoves++)
+            {
+                SolveCoordinator coordinator = new SolveCoordinator(tableFile, 16, workers, splitMoves);
+                try
+                {
+                    for (String moves : CHECK_POSITIONS)
+                    {
+                        Position position = PositionCodec.fromMoves(moves);
+                        int score = coordinator.solve(position);
+                        int col = coordinator.getBestCol();
+                        int expected = solver.nullWindowSearch(position);
+                        int colScore = (AREA + 1 - position.getMoves()) / 2;
+                        if (!position.isWinningMove(col))
+                        {
+                            position.play(col);
+                            colScore = -solver.nullWindowSearch(position);
+                            position.undo();
+                        }
+                        boolean match = score == expected && colScore == expected;
+                        System.out.println(String.format("%s %s split %d: score %d column %d, expected %d",
+                            match ? "ok  " : "FAIL", moves, splitMoves, score, col + 1, expected));
+                        pass &= match;
+                    }
+                }
+                finally
+                {
+                    coordinator.close();
+                }
+            }
+        }
+        finally
+        {
+            Files.deleteIfExists(tableFile);
+        }
+        return pass;
+    }
+
+    /**
+     * Sets whether the score of each work unit is printed
+     * @param verbose boolean to print the units
+     */
+    public void setVerbose(boolean verbose)
+    {
+        this.verbose = verbose;
+    }
+
+    /**
+     * Gets the best column found by the last call to solve()
+     * @return bestCol of the last position solved, or -1 if it had no move
+     */
+    public int getBestCol()
+    {
+        return bestCol;
+    }
+
+    /**
+     * Gets the number of positions the workers searched, over every call to solve()
+     * @return the node count
+     */
+    public long getNodeCount()
+    {
+        return nodes.sum();
+    }
+
+    /**
+     * Returns the exact score of a position by solving its work units on the workers
+     * @param position of the board, which is restored before returning
+     * @return the score of the position
+     * @throws IOException if every worker stops before all of the units are solved
+     */
+    public int solve(Position position) throws IOException
+    {
+        LinkedHashMap<Long, Long> units = new LinkedHashMap<Long, Long>(); // canonical key to key
+        collectUnits(position, splitMoves, units);
+        ConcurrentLinkedQueue<Long> queue = new ConcurrentLinkedQueue<Long>(units.values());
+        ConcurrentHashMap<Long, Integer> scores = new ConcurrentHashMap<Long, Integer>();
+
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+        for (int i = 0; i < sockets.length; i++)
+        {
+            int worker = i;
+            futures.add(pool.submit(() -> runUnits(worker, queue, scores)));
+        }
+        for (Future<?> future : futures)
+        {
+            try
+            {
+                future.get();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted while solving");
+            }
+            catch (ExecutionException e)
+            {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        if (scores.size() < units.size())
+        {
+            throw new IOException("workers stopped before every unit was solved");
+        }
+        return combine(position, splitMoves, scores);
+    }
+
+    /**
+     * Collects the positions a number of moves from the root that are not decided before then
+     * @param position of the board, which is restored before returning
+     * @param depth moves left to the units
+     * @param units canonical key to key of each unit, in the order they are found
+     */
+    private static void collectUnits(Position position, int depth, LinkedHashMap<Long, Long> units)
+    {
+        if (depth == 0)
+        {
+            units.putIfAbsent(position.getCanonicalKey(), position.getKey()); // mirror images are solved once
+            return;
+        }
+        if (position.canWinNext())
+        {
+            return; // the position is won without searching any of its columns
+        }
+        for (int col : BoardSolver.MOVE_ORDER)
+        {
+            if (position.canPlay(col))
+            {
+                position.play(col);
+                if (!position.isFull())
+                {
+                    collectUnits(position, depth - 1, units);
+                }
+                position.undo();
+            }
+        }
+    }
+
+    /**
+     * Combines the scores of the units into the score of a position with negamax, finding the best
+     * column of the root
+     * @param position of the board, which is restored before returning
+     * @param depth moves left to the units
+     * @param scores of the units by canonical key
+     * @return the score of the position
+     */
+    private int combine(Position position, int depth, ConcurrentHashMap<Long, Integer> scores)
+    {
+        if (depth == 0)
+        {
+            return scores.get(position.getCanonicalKey());
+        }
+        if (position.canWinNext()) // collectUnits() made no units below this position
+        {
+            for (int c : BoardSolver.MOVE_ORDER)
+            {
+                if (position.canPlay(c) && position.isWinningMove(c))
+                {
+                    if (depth == splitMoves)
+                    {
+                        bestCol = c;
+                    }
+                    break;
+                }
+            }
+            return (AREA + 1 - position.getMoves()) / 2;
+        }
+        int best = Integer.MIN_VALUE;
+        int col = -1;
+        for (int c : BoardSolver.MOVE_ORDER)
+        {
+            if (position.canPlay(c))
+            {
+                int score = 0;
+                position.play(c);
+                if (!position.isFull())
+                {
+                    score = -combine(position, depth - 1, scores);
+                }
+                position.undo();
+                if (score > best)
+                {
+                    best = score;
+                    col = c;
+                }
+            }
+        }
+        if (depth == splitMoves)
+        {
+            bestCol = col;
+        }
+        return col < 0 ? 0 : best; // a full board is a draw
+    }
+
+    /**
+     * Sends units to one worker until there are none left or the worker stops, in which case its unit
+     * goes back in the queue for the other workers
+     * @param worker index of the worker
+     * @param queue of unit keys left to solve
+     * @param scores of the units solved, by canonical key
+     */
+    private void runUnits(int worker, ConcurrentLinkedQueue<Long> queue, ConcurrentHashMap<Long, Integer> scores)
+    {
+        Long key = queue.poll();
+        while (key != null)
+        {
+            writers[worker].println("solve " + key);
+            String[] words = null;
+            try
+            {
+                String line = readers[worker].readLine();
+                words = line == null ? null : line.split(" ");
+            }
+            catch (IOException e)
+            {
+                words = null;
+            }
+            if (words == null || !words[0].equals("score"))
+            {
+                queue.add(key);
+                System.err.println("Worker " + worker + " stopped");
+                return;
+            }
+            int score = Integer.parseInt(words[2]);
+            long unitNodes = Long.parseLong(words[3]);
+            scores.put(PositionCodec.fromKey(key).getCanonicalKey(), score);
+            nodes.add(unitNodes);
+            if (verbose)
+            {
+                System.out.println("unit " + PositionCodec.keyToMoves(key) + " score " + score + " nodes "
+                    + unitNodes + " worker " + worker);
+            }
+            key = queue.poll();
+        }
+    }
+
+    /**
+     * Tells the workers to quit and waits for them to exit, leaving the table file in place
+     */
+    public void close()
+    {
+        for (int i = 0; i < processes.length; i++)
+        {
+            if (writers[i] != null)
+            {
+                writers[i].println("quit");
+            }
+            try
+            {
+                if (sockets[i] != null)
+                {
+                    sockets[i].close();
+                }
+                if (processes[i] != null && !processes[i].waitFor(CONNECT_MILLIS, TimeUnit.MILLISECONDS))
+                {
+                    processes[i].destroy();
+                }
+            }
+            catch (IOException e)
+            {
+                System.err.println("Could not close worker " + i + ": " + e.getMessage());
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                processes[i].destroy();
+            }
+        }
+        if (pool != null)
+        {
+            pool.shutdown();
+        }
+        try
+        {
+            server.close();
+        }
+        catch (IOException e)
+        {
+            System.err.println("Could not close server: " + e.getMessage());
+        }
+    }
+}
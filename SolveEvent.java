@@ -0,0 +1,65 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ *  A Java Flight Recorder event for each call to BoardSolver.solve(), whose duration is the time solving
+ *
+ *  The transposition table counts are only collected while this event is being recorded, or when the
+ *  solver has metrics on, so they cost nothing otherwise
+ *
+ *  @author Neil Kakhandiki
+ *  @version October 18, 2026
+ */
+@Name("connect4.Solve")
+@Label("Solve")
+@Category("Connect4")
+@Description("A call to BoardSolver.solve()")
+@StackTrace(false)
+public class SolveEvent extends jdk.jfr.Event
+{
+    @Label("Key")
+    @Description("Position.getKey() of the position solved")
+    long key;
+
+    @Label("Moves")
+    @Description("Number of pieces on the board")
+    int moves;
+
+    @Label("Mode")
+    @Description("book, ponder, depth-limited or exact")
+    String mode;
+
+    @Label("Column")
+    @Description("Best column, from 0")
+    int column;
+
+    @Label("Score")
+    @Description("Score of the best column, or the heuristic score in depth-limited mode")
+    int score;
+
+    @Label("Depth")
+    @Description("Depth of the last finished iteration in depth-limited mode")
+    int depth;
+
+    @Label("Stopped")
+    @Description("Whether the search was stopped before every column was scored")
+    boolean stopped;
+
+    @Label("Nodes")
+    long nodes;
+
+    @Label("Probes")
+    long probes;
+
+    @Label("Hits")
+    long hits;
+
+    @Label("Collisions")
+    long collisions;
+
+    @Label("Overwrites")
+    long overwrites;
+}
@@ -0,0 +1,56 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Paths;
+
+/**
+ *  Scores work units for a SolveCoordinator in a JVM of its own, which the coordinator starts
+ *
+ *  The worker connects to the coordinator's port on the loopback address and solves with a transposition
+ *  table in a mapped file shared with the coordinator's other workers, so a position one worker solves
+ *  is found by all of them. Commands, one per line:
+ *  solve key           prints "score key value nodes" with the exact score of the position with the key
+ *  quit                exits
+ *
+ *  @author Neil Kakhandiki
+ *  @version October 18, 2026
+ */
+public class SolveWorker
+{
+    /**
+     * Connects to a coordinator and scores positions until it says to quit or disconnects
+     * @param args port of the coordinator and the shared table file
+     * @throws IOException if the table cannot be opened or the coordinator cannot be reached
+     */
+    public static void main(String args[]) throws IOException
+    {
+        int port = Integer.parseInt(args[0]);
+        BoardSolver solver = new BoardSolver(TranspositionTable.openShared(Paths.get(args[1])));
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port))
+        {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+            PrintWriter writer = new PrintWriter(new OutputStreamWriter(socket.getOutputStream()), true);
+            String line = reader.readLine();
+            while (line != null && !line.trim().equals("quit"))
+            {
+                String[] words = line.trim().split("\\s+");
+                if (words[0].equals("solve"))
+                {
+                    long key = Long.parseLong(words[1]);
+                    solver.resetNodeCount();
+                    int score = solver.nullWindowSearch(PositionCodec.fromKey(key));
+                    writer.println("score " + key + " " + score + " " + solver.getNodeCount());
+                }
+                else
+                {
+                    writer.println("error unknown command: " + words[0]);
+                }
+                line = reader.readLine();
+            }
+        }
+    }
+}
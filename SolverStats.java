@@ -0,0 +1,222 @@
+import java.util.Arrays;
+
+/**
+ *  Counts what a BoardSolver does during a solve, or over many solves when the counts are added together
+ *
+ *  The counters are plain fields that the search thread increments directly, so collecting them costs a
+ *  few additions per node. The getters are synchronized with add() so aggregate counts can be read from
+ *  other threads, for example through JMX
+ *
+ *  @author Neil Kakhandiki
+ *  @version October 18, 2026
+ */
+public class SolverStats implements SolverStatsMBean
+{
+    long solves;
+    long nodes;
+    long elapsedNanos;
+    long probes;
+    long hits;
+    long collisions;
+    long overwrites;
+    long expanded;
+    long cutoffs;
+    long firstMoveCutoffs;
+    long[] depthHistogram;
+
+    /**
+     * Create a new SolverStats object with every count at 0
+     */
+    public SolverStats()
+    {
+        depthHistogram = new long[Position.AREA + 1];
+    }
+
+    /**
+     * Sets every count back to 0
+     */
+    public synchronized void reset()
+    {
+        solves = 0;
+        nodes = 0;
+        elapsedNanos = 0;
+        probes = 0;
+        hits = 0;
+        collisions = 0;
+        overwrites = 0;
+        expanded = 0;
+        cutoffs = 0;
+        firstMoveCutoffs = 0;
+        Arrays.fill(depthHistogram, 0);
+    }
+
+    /**
+     * Adds the counts of another SolverStats object to this one
+     * @param other counts to add
+     */
+    public synchronized void add(SolverStats other)
+    {
+        solves += other.solves;
+        nodes += other.nodes;
+        elapsedNanos += other.elapsedNanos;
+        probes += other.probes;
+        hits += other.hits;
+        collisions += other.collisions;
+        overwrites += other.overwrites;
+        expanded += other.expanded;
+        cutoffs += other.cutoffs;
+        firstMoveCutoffs += other.firstMoveCutoffs;
+        for (int i = 0; i < depthHistogram.length; i++)
+        {
+            depthHistogram[i] += other.depthHistogram[i];
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized long getSolves()
+    {
+        return solves;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized long getNodes()
+    {
+        return nodes;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized double getNodesPerSecond()
+    {
+        if (elapsedNanos == 0)
+        {
+            return 0;
+        }
+        return nodes * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized double getElapsedMillis()
+    {
+        return elapsedNanos / 1e6;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized long getProbes()
+    {
+        return probes;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized long getHits()
+    {
+        return hits;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized long getCollisions()
+    {
+        return collisions;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized long getOverwrites()
+    {
+        return overwrites;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized double getHitRate()
+    {
+        if (probes == 0)
+        {
+            return 0;
+        }
+        return (double) hits / probes;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized double getCutoffRate()
+    {
+        if (expanded == 0)
+        {
+            return 0;
+        }
+        return (double) cutoffs / expanded;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized double getFirstMoveCutoffRate()
+    {
+        if (cutoffs == 0)
+        {
+            return 0;
+        }
+        return (double) firstMoveCutoffs / cutoffs;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized long[] getDepthHistogram()
+    {
+        int length = depthHistogram.length;
+        while (length > 0 && depthHistogram[length - 1] == 0)
+        {
+            length--;
+        }
+        return Arrays.copyOf(depthHistogram, length);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean isTracing()
+    {
+        return BoardSolver.isTracing();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void setTracing(boolean tracing)
+    {
+        BoardSolver.setTracing(tracing);
+    }
+
+    /**
+     * Returns the counts as a few lines of text
+     * @return a summary of the counts
+     */
+    public synchronized String toString()
+    {
+        return String.format("solves %d, nodes %d, %.0f nodes/s, %.3f ms%n", solves, nodes, getNodesPerSecond(),
+            getElapsedMillis())
+            + String.format("tt probes %d, hits %d (%.1f%%), collisions %d, overwrites %d%n", probes, hits,
+            100 * getHitRate(), collisions, overwrites)
+            + String.format("cutoffs %.1f%% of expanded nodes, %.1f%% on the first move%n", 100 * getCutoffRate(),
+            100 * getFirstMoveCutoffRate())
+            + "nodes by depth " + Arrays.toString(getDepthHistogram());
+    }
+}
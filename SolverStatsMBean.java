@@ -0,0 +1,93 @@
+
+/**
+ *  The solver statistics that can be read through JMX
+ *
+ *  @author Neil Kakhandiki
+ *  @version October 18, 2026
+ */
+public interface SolverStatsMBean
+{
+    /**
+     * Gets the number of solves counted
+     * @return the number of solves
+     */
+    long getSolves();
+
+    /**
+     * Gets the number of positions searched
+     * @return the node count
+     */
+    long getNodes();
+
+    /**
+     * Gets the number of positions searched per second of solving
+     * @return nodes per second
+     */
+    double getNodesPerSecond();
+
+    /**
+     * Gets the time spent solving
+     * @return elapsed milliseconds
+     */
+    double getElapsedMillis();
+
+    /**
+     * Gets the number of transposition table probes
+     * @return the probe count
+     */
+    long getProbes();
+
+    /**
+     * Gets the number of probes that found an entry
+     * @return the hit count
+     */
+    long getHits();
+
+    /**
+     * Gets the number of probes that missed because another position was in the slot
+     * @return the collision count
+     */
+    long getCollisions();
+
+    /**
+     * Gets the number of stores that replaced another position
+     * @return the overwrite count
+     */
+    long getOverwrites();
+
+    /**
+     * Gets the fraction of probes that found an entry
+     * @return the hit rate from 0 to 1
+     */
+    double getHitRate();
+
+    /**
+     * Gets the fraction of searched positions whose moves caused a beta cutoff
+     * @return the cutoff rate from 0 to 1
+     */
+    double getCutoffRate();
+
+    /**
+     * Gets the fraction of beta cutoffs caused by the first move searched
+     * @return the first move cutoff rate from 0 to 1
+     */
+    double getFirstMoveCutoffRate();
+
+    /**
+     * Gets the number of positions searched at each depth below the root
+     * @return nodes by depth
+     */
+    long[] getDepthHistogram();
+
+    /**
+     * Checks if every solver samples its search as SearchTraceEvents
+     * @return boolean if tracing is on
+     */
+    boolean isTracing();
+
+    /**
+     * Sets whether every solver samples its search as SearchTraceEvents, while searches are running
+     * @param tracing boolean to sample the search
+     */
+    void setTracing(boolean tracing);
+}
@@ -1,36 +1,76 @@
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Scanner;
 
 /**
  *  Runs a text version of Connect-4
+ *  The board is 7x6 unless a number of columns and rows is given, such as "8 7", in which case the
+ *  game is played on a WidePosition and the computer solves it with a WideSolver
+ *  On the 7x6 board the computer answers from the first move, searching with a time budget until the
+ *  position is shallow enough to solve exactly, and ponders the human's replies while they decide
+ *  A saved transposition table is loaded if there is one, and run with -Dconnect4.checkpoint=true to save
+ *  it while the game is played
  *
  *  @author Neil Kakhandiki
  *  @version May 12, 2021
  */
 public class TextMain
 {
+    public static final int WIDE_SOLVE_EMPTY = 28; // empty cells left when the computer starts on a wide board
+    public static final int EXACT_MOVES = 11; // moves played before the computer solves exactly
+    public static final long DEPTH_LIMIT_MILLIS = 1000; // time to search each move before EXACT_MOVES
+
     /**
      * Runs a text version of Connect-4
-     * @param args main method
+     * @param args optionally the number of columns and rows
+     * @throws IOException if the opening book or transposition table cannot be loaded
      */
-    public static void main(String args[])
+    public static void main(String args[]) throws IOException
     {
+        if (args.length >= 2)
+        {
+            int cols = Integer.parseInt(args[0]);
+            int rows = Integer.parseInt(args[1]);
+            if (cols != Position.COLS || rows != Position.ROWS)
+            {
+                playWide(cols, rows);
+                return;
+            }
+        }
         BitBoard board = new BitBoard();
         BoardSolver solver = new BoardSolver();
+        solver.setVerbose(true);
+        solver.setDepthLimited(DEPTH_LIMIT_MILLIS, Position.AREA - EXACT_MOVES);
+        Path bookFile = Paths.get(OpeningBook.DEFAULT_FILE);
+        if (Files.exists(bookFile))
+        {
+            solver.setBook(OpeningBook.load(bookFile));
+        }
+        Path tableFile = Paths.get(TranspositionTable.DEFAULT_FILE);
+        if (Files.exists(tableFile))
+        {
+            solver.loadTable(tableFile);
+        }
+        if (Boolean.getBoolean(BoardSolver.CHECKPOINT_PROPERTY)) // the game writes no files unless asked to
+        {
+            solver.setCheckpoint(tableFile, BoardSolver.CHECKPOINT_MILLIS, TranspositionTable.DEFAULT_MIN_WORK);
+        }
         System.out.println("Connect 4!");
         Scanner scan = new Scanner(System.in);
         int col = -1;
         boolean gameOver = false;
-        int counter = 0;
 
         while (!gameOver)
         {
             System.out.println("Where would you like to go Player " + board.getTurn() + "?");
             System.out.println(board);
+            solver.ponder(board.getPosition());
             col = scan.nextInt(); // assumes valid column from 1 - 7, and the column is not full
             int winningTurn = board.getTurn() - 1;
             board.makeMove(col - 1);
-            counter++;
             System.out.println(board);
             if (board.isWin(board.getBoard(winningTurn)))
             {
@@ -46,10 +86,10 @@ public class TextMain
                 gameOver = true;
                 scan.close();
             }
-            if (counter >= 11) // what move the AI will start playing at
+            if (!gameOver)
             {
                 winningTurn = board.getTurn() - 1;
-                board.makeMove(solver.solve(board));
+                board.makeMove(solver.solveAsync(board.getPosition(), 0).join()); // stops pondering first
                 if (board.isWin(board.getBoard(winningTurn)))
                 {
                     System.out.println(board);
@@ -66,5 +106,59 @@ public class TextMain
                 }
             }
         }
+        solver.awaitCheckpoint();
+    }
+
+    /**
+     * Runs a text version of Connect-4 on a board of any size, where the computer plays once few enough
+     * cells are left for it to solve the position
+     * @param cols number of columns
+     * @param rows number of rows
+     */
+    private static void playWide(int cols, int rows)
+    {
+        WidePosition position = new WidePosition(cols, rows);
+        WideSolver solver = new WideSolver(cols, rows);
+        System.out.println("Connect 4 on " + cols + "x" + rows + "!");
+        Scanner scan = new Scanner(System.in);
+        boolean gameOver = false;
+
+        while (!gameOver)
+        {
+            System.out.println("Where would you like to go Player " + (position.getMoves() % 2 + 1) + "?");
+            System.out.println(position);
+            int col = scan.nextInt() - 1; // assumes valid column, and the column is not full
+            gameOver = playWide(position, col);
+            if (!gameOver && position.getArea() - position.getMoves() <= WIDE_SOLVE_EMPTY)
+            {
+                gameOver = playWide(position, solver.solve(position));
+            }
+        }
+        scan.close();
+    }
+
+    /**
+     * Plays a move on a wide board and prints the result if it ends the game
+     * @param position of the board
+     * @param col to play
+     * @return boolean if the game is over
+     */
+    private static boolean playWide(WidePosition position, int col)
+    {
+        int winningTurn = position.getMoves() % 2;
+        position.play(col);
+        if (position.isWin(winningTurn))
+        {
+            System.out.println(position);
+            System.out.println("Player " + (winningTurn + 1) + " wins!");
+            return true;
+        }
+        else if (position.isFull())
+        {
+            System.out.println(position);
+            System.out.println("Tie Game!");
+            return true;
+        }
+        return false;
     }
 }
@@ -1,73 +1,549 @@
-
-import java.util.Objects;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 
 /**
  *  Makes a hash table to store board position and their scores to reduce computation.
- *  No collision optimization, just replaces the current Pair
+ *  Each slot is a single long packing a partial key, the flag and the score, so no objects are
+ *  allocated when storing or probing. Slots are grouped in buckets of 8, one 64 byte cache line, and a
+ *  key can be stored in any slot of its bucket. When the bucket is full, the entry that took the least
+ *  work to find is replaced, counting entries from earlier searches as having less work than they did,
+ *  so expensive results near the root survive cheap leaves and stale entries age out over a game
+ *  Slots are read and written atomically, so one table can be shared by several solver threads
+ *  without locking: a reader sees either the old or the new entry, never a mix of both
+ *  Entries are only exact for keys below 2^49 from Position.getKey(), which the bucket and partial key
+ *  identify uniquely. Larger boards use a WideTable, which keeps the full key
+ *
+ *  A snapshot file keeps the entries that took enough work to be worth saving: a 16 byte header (magic
+ *  number, version, entry count) followed by 12 bytes per entry, the full key then the packed entry.
+ *  The full key is rebuilt from the bucket and partial key, so a snapshot loads into any size of table
+ *
+ *  A shared table keeps its slots in a memory-mapped file instead of the heap, so solvers in several
+ *  processes on one host can use one table. The file is a 64 byte header (magic number, version, bucket
+ *  count) followed by the slots in native byte order. Every slot is 8 byte aligned and read and written
+ *  atomically through a VarHandle, the same as the slots of a table on the heap
  *
  *  @author Neil Kakhandiki
  *  @version May 13, 2021
  */
 public class TranspositionTable
 {
-    public static final int ROWS = 6;
-    public static final int COLS = 7;
-    public static final int SIZE = 8388593;
+    public static final int ROWS = Position.ROWS;
+    public static final int COLS = Position.COLS;
+    public static final int DEFAULT_MEGABYTES = 64;
+    public static final int EXACT = 1;
+    public static final int LOWER = 2;
+    public static final int UPPER = 3;
+    public static final int MAX_WORK = 63;
+    public static final int BUCKET = 8;
+    public static final int KEY_BITS = 37;
+    public static final int ENTRY_BITS = Long.SIZE - KEY_BITS;
+    public static final int GENERATIONS = 256;
+    public static final int AGE_WORK = 2; // work an entry loses for each search since it was stored
+    public static final int DEFAULT_MIN_WORK = 10;
+    public static final int MAGIC = 0x43345454; // "C4TT"
+    public static final int VERSION = 1;
+    public static final int HEADER = 16;
+    public static final int ENTRY_BYTES = Long.BYTES + Integer.BYTES;
+    public static final String DEFAULT_FILE = "table.bin";
+    public static final int SHARED_MAGIC = 0x43345453; // "C4TS"
+    public static final int SHARED_HEADER = 64; // one cache line, so buckets stay aligned in the file
 
-    private Pair[] hashTable;
+    private static final int ENTRY_MASK = (1 << 19) - 1; // the entry without its generation
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle SHARED_SLOTS = MethodHandles.byteBufferViewVarHandle(long[].class,
+        ByteOrder.nativeOrder());
+
+    private long[] hashTable; // the slots of a table on the heap, or null for a shared table
+    private MappedByteBuffer shared; // the slots of a shared table, or null
+    private int size;
+    private int generation;
+    private long stores; // entries stored or changed so far, which threads sharing the table may undercount
 
     /**
-     * Create a new TranspositionTable object with SIZE
+     * Create a new TranspositionTable object using DEFAULT_MEGABYTES of memory
      */
     public TranspositionTable()
     {
-        hashTable = new Pair[SIZE];
+        this(DEFAULT_MEGABYTES);
+    }
+
+    /**
+     * Create a new TranspositionTable object with a memory budget
+     * The number of buckets is the largest prime that fits in the budget, which must be more than 2^12
+     * buckets so the bucket and the 37 bit partial key together identify a 49 bit board key exactly
+     * @param megabytes of memory the table can use, at least 2
+     */
+    public TranspositionTable(int megabytes)
+    {
+        size = getBuckets(megabytes, Long.MAX_VALUE);
+        hashTable = new long[size * BUCKET];
+    }
+
+    /**
+     * Create a new TranspositionTable object whose slots are in a mapped file
+     * @param shared mapping of the file
+     * @param size number of buckets
+     */
+    private TranspositionTable(MappedByteBuffer shared, int size)
+    {
+        this.shared = shared;
+        this.size = size;
+    }
+
+    /**
+     * Gets the number of buckets of a table
+     * @param megabytes of memory the table can use, at least 2
+     * @param maxBytes most bytes the slots can take
+     * @return the largest prime number of buckets that fits
+     */
+    private static int getBuckets(int megabytes, long maxBytes)
+    {
+        if (megabytes < 2)
+        {
+            throw new IllegalArgumentException("Transposition table needs at least 2 megabytes");
+        }
+        long buckets = Math.min((long) megabytes * 1024 * 1024, maxBytes) / (BUCKET * Long.BYTES);
+        return previousPrime((int) Math.min(buckets, (Integer.MAX_VALUE - 8) / BUCKET));
+    }
+
+    /**
+     * Creates an empty shared table in a file, replacing the file if it exists
+     * @param file to hold the slots
+     * @param megabytes of memory the table can use, at least 2 and less than 2048
+     * @return the shared table
+     * @throws IOException if the file cannot be created
+     */
+    public static TranspositionTable createShared(Path file, int megabytes) throws IOException
+    {
+        int buckets = getBuckets(megabytes, Integer.MAX_VALUE - SHARED_HEADER);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                SHARED_HEADER + (long) buckets * BUCKET * Long.BYTES); // a new file is filled with zeros
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, buckets);
+            buffer.putInt(0, SHARED_MAGIC); // written last, so a table is never opened half made
+            return new TranspositionTable(buffer, buckets);
+        }
     }
 
     /**
-     * Hash function to return index using modulus division
+     * Opens a shared table made by createShared(), which may be in use by other processes
+     * @param file holding the slots
+     * @return the shared table
+     * @throws IOException if the file cannot be opened or is not a shared table
+     */
+    public static TranspositionTable openShared(Path file) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE))
+        {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            if (buffer.limit() < SHARED_HEADER || buffer.getInt(0) != SHARED_MAGIC || buffer.getInt(4) != VERSION)
+            {
+                throw new IOException(file + " is not a shared transposition table");
+            }
+            int buckets = buffer.getInt(8);
+            if (buffer.limit() != SHARED_HEADER + (long) buckets * BUCKET * Long.BYTES)
+            {
+                throw new IOException(file + " is truncated");
+            }
+            return new TranspositionTable(buffer, buckets);
+        }
+    }
+
+    /**
+     * Checks if the slots of the table are in a file shared with other processes
+     * @return boolean if the table is shared
+     */
+    public boolean isShared()
+    {
+        return shared != null;
+    }
+
+    /**
+     * Reads a slot atomically
+     * @param index of the slot
+     * @return the slot
+     */
+    private long getSlot(int index)
+    {
+        if (shared != null)
+        {
+            return (long) SHARED_SLOTS.getOpaque(shared, SHARED_HEADER + index * Long.BYTES);
+        }
+        return (long) SLOTS.getOpaque(hashTable, index);
+    }
+
+    /**
+     * Writes a slot atomically
+     * @param index of the slot
+     * @param slot to write
+     */
+    private void setSlot(int index, long slot)
+    {
+        if (shared != null)
+        {
+            SHARED_SLOTS.setOpaque(shared, SHARED_HEADER + index * Long.BYTES, slot);
+        }
+        else
+        {
+            SLOTS.setOpaque(hashTable, index, slot);
+        }
+    }
+
+    /**
+     * Returns the largest prime less than or equal to n
+     * @param n upper limit
+     * @return the largest prime less than or equal to n
+     */
+    private static int previousPrime(int n)
+    {
+        while (!isPrime(n))
+        {
+            n--;
+        }
+        return n;
+    }
+
+    /**
+     * Checks if a number is prime using trial division
+     * @param n number to check
+     * @return boolean if n is prime
+     */
+    private static boolean isPrime(int n)
+    {
+        if (n < 2 || n % 2 == 0)
+        {
+            return n == 2;
+        }
+        for (int i = 3; (long) i * i <= n; i += 2)
+        {
+            if (n % i == 0)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of slots in the table
+     * @return size of the table
+     */
+    public int getSize()
+    {
+        return size * BUCKET;
+    }
+
+    /**
+     * Hash function to return the first slot of the bucket a key belongs in, using modulus division
      * @param key to find
-     * @return index of the array the key belongs
+     * @return index of the array the bucket starts at
      */
     public int getIndex(long key)
     {
-        return Math.abs((int)key % SIZE);
+        return (int) (key % size) * BUCKET;
     }
 
     /**
-     * Puts a key, value pair in the hash table or sets the current pair to a new pair
+     * Gets a count of the entries stored or changed, which only ever grows, so a snapshot can be skipped
+     * if nothing changed since the last one. Storing an entry again as it was does not count, and threads
+     * sharing the table can lose increments, but not all of them
+     * @return the number of entries stored or changed, or fewer if several threads stored at once
+     */
+    public long getStores()
+    {
+        return stores;
+    }
+
+    /**
+     * Starts a new search, so entries stored by earlier searches lose priority when a bucket is full
+     * Entries found again by the new search are moved to the new generation by get()
+     */
+    public void newSearch()
+    {
+        generation = (generation + 1) % GENERATIONS;
+    }
+
+    /**
+     * Puts a key, flag, value entry in the hash table
+     * The slot holds the lower 37 bits of the key, the generation, the work, the best move, the flag,
+     * and the value. An entry for the same key is replaced, then an empty slot is used, and otherwise
+     * the slot with the least work after aging is replaced
      * @param key to put
+     * @param flag EXACT, LOWER or UPPER
      * @param value to put
+     * @param move best column found, or -1 for none
+     * @param work log2 of the number of nodes searched to find the entry, up to MAX_WORK
+     */
+    public void put(long key, int flag, int value, int move, int work)
+    {
+        int entry = (Math.min(work, MAX_WORK) << 13) | ((move + 1) << 10) | (flag << 8) | (value & 0xFF);
+        store(key, entry);
+    }
+
+    /**
+     * Stores a packed entry without its generation in the bucket of a key, stamped with the current
+     * generation
+     * @param key to store
+     * @param entry packed flag, value, move and work
      */
-    public void put(long key, TTEntry value)
+    private void store(long key, int entry)
     {
-        int index = getIndex(key);
-        if (Objects.isNull(hashTable[index]))
+        int start = getIndex(key);
+        long partial = key << ENTRY_BITS;
+        int victim = start;
+        int lowest = Integer.MAX_VALUE;
+        for (int index = start; index < start + BUCKET; index++)
         {
-            hashTable[index] =  new Pair(key, value);
+            long slot = getSlot(index);
+            if (slot == 0 || (slot & -(1L << ENTRY_BITS)) == partial)
+            {
+                victim = index;
+                break;
+            }
+            int priority = getWork((int) slot) - AGE_WORK * getAge((int) slot);
+            if (priority < lowest)
+            {
+                lowest = priority;
+                victim = index;
+            }
         }
-        else
+        long old = getSlot(victim);
+        setSlot(victim, partial | (generation << 19) | entry);
+        if ((old & -(1L << ENTRY_BITS)) != partial || ((int) old & ENTRY_MASK) != entry)
         {
-            hashTable[index].setKey(key);
-            hashTable[index].setValue(value);
+            stores++; // only a change a snapshot would see, not a new generation for the same entry
         }
     }
 
     /**
-     * Returns the TTEntry with a given key
+     * Gets the number of searches since an entry was stored or last found
+     * @param entry packed with its generation
+     * @return the age of the entry
+     */
+    private int getAge(int entry)
+    {
+        return (generation - (entry >>> 19)) & (GENERATIONS - 1); // the bits above hold the partial key
+    }
+
+    /**
+     * Returns the entry with a given key, packed as an int to avoid allocating
+     * Use getFlag(), getValue(), getMove() and getWork() to read the entry
      * @param key to get Entry
-     * @return the Entry or null if there is an Entry
+     * @return the entry or 0 if there is no entry
+     */
+    public int get(long key)
+    {
+        int start = getIndex(key);
+        long partial = key << ENTRY_BITS;
+        for (int index = start; index < start + BUCKET; index++)
+        {
+            long slot = getSlot(index);
+            if (slot == 0)
+            {
+                return 0; // slots fill from the front and are never emptied, so the key is not in the bucket
+            }
+            if ((slot & -(1L << ENTRY_BITS)) == partial)
+            {
+                int entry = (int) slot & ENTRY_MASK;
+                if (getAge((int) slot) != 0) // keeps entries the current search uses from aging out
+                {
+                    setSlot(index, partial | (generation << 19) | entry);
+                }
+                return entry;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Checks if the bucket of a key is full of other positions, which is a collision when probing and an
+     * overwrite when storing
+     * @param key to check
+     * @return boolean if the key is not in its bucket and every slot holds another position
+     */
+    public boolean isOccupied(long key)
+    {
+        int start = getIndex(key);
+        long partial = key << ENTRY_BITS;
+        for (int index = start; index < start + BUCKET; index++)
+        {
+            long slot = getSlot(index);
+            if (slot == 0 || (slot & -(1L << ENTRY_BITS)) == partial)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the flag of an entry returned by get()
+     * @param entry from get()
+     * @return EXACT, LOWER, UPPER, or 0 if there is no entry
+     */
+    public static int getFlag(int entry)
+    {
+        return (entry >>> 8) & 0B11;
+    }
+
+    /**
+     * Gets the value of an entry returned by get()
+     * @param entry from get()
+     * @return the score stored in the entry
+     */
+    public static int getValue(int entry)
+    {
+        return (byte) entry;
+    }
+
+    /**
+     * Gets the best move of an entry returned by get()
+     * @param entry from get()
+     * @return the best column or -1 if there is no move
+     */
+    public static int getMove(int entry)
+    {
+        return ((entry >>> 10) & 0B111) - 1;
+    }
+
+    /**
+     * Gets the work of an entry returned by get()
+     * @param entry from get()
+     * @return log2 of the number of nodes searched to find the entry
      */
-    public TTEntry getEntry(long key)
+    public static int getWork(int entry)
     {
-        int index = getIndex(key);
-        if (!Objects.isNull(hashTable[index]))
+        return (entry >>> 13) & MAX_WORK;
+    }
+
+    /**
+     * Writes every entry with at least minWork to a snapshot file, without its generation
+     * The table can keep changing while it is saved, since each slot is read in one piece. The file is
+     * written next to the target and then moved over it, so a crash never leaves half a snapshot
+     * @param file to write
+     * @param minWork smallest work an entry needs to be saved
+     * @return the number of entries saved
+     * @throws IOException if the file cannot be written
+     */
+    public int save(Path file, int minWork) throws IOException
+    {
+        long inverse = BigInteger.ONE.shiftLeft(KEY_BITS).mod(BigInteger.valueOf(size))
+            .modInverse(BigInteger.valueOf(size)).longValue();
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        int count = 0;
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING))
         {
-            if (hashTable[index].getKey() == key)
+            channel.position(HEADER);
+            for (int index = 0; index < getSize(); index++)
             {
-                return hashTable[index].getEntry();
+                long slot = getSlot(index);
+                int entry = (int) slot & ENTRY_MASK;
+                if (getFlag(entry) != 0 && getWork(entry) >= minWork)
+                {
+                    // the key is the partial key plus 2^37 * high, where high is found from the bucket
+                    long partial = slot >>> ENTRY_BITS;
+                    long high = Math.floorMod(index / BUCKET - partial, (long) size) * inverse % size;
+                    buffer.putLong((high << KEY_BITS) | partial);
+                    buffer.putInt(entry);
+                    count++;
+                    if (buffer.remaining() < ENTRY_BYTES)
+                    {
+                        write(channel, buffer);
+                    }
+                }
             }
+            write(channel, buffer);
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putLong(count);
+            channel.position(0);
+            write(channel, buffer);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return count;
+    }
+
+    /**
+     * Writes the contents of a buffer to a channel and clears the buffer
+     * @param channel to write to
+     * @param buffer to write
+     * @throws IOException if the channel cannot be written
+     */
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException
+    {
+        buffer.flip();
+        while (buffer.hasRemaining())
+        {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Adds the entries of a snapshot file to the table by memory mapping it, so the file is read straight
+     * from the page cache instead of being copied through a stream. Entries are stored like put() in the
+     * current generation
+     * @param file to load
+     * @return the number of entries loaded
+     * @throws IOException if the file cannot be read or is not a snapshot
+     */
+    public int load(Path file) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.limit() < HEADER || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+            {
+                throw new IOException(file + " is not a transposition table snapshot");
+            }
+            long count = buffer.getLong(8);
+            if (count != (buffer.limit() - HEADER) / ENTRY_BYTES)
+            {
+                throw new IOException(file + " is truncated");
+            }
+            for (int i = 0; i < count; i++)
+            {
+                int offset = HEADER + i * ENTRY_BYTES;
+                long key = buffer.getLong(offset);
+                int entry = buffer.getInt(offset + Long.BYTES);
+                store(key, entry & ENTRY_MASK);
+            }
+            return (int) count;
+        }
+    }
+
+    /**
+     * Removes every entry from the table
+     */
+    public void reset()
+    {
+        if (shared != null)
+        {
+            for (int index = 0; index < getSize(); index++)
+            {
+                setSlot(index, 0L);
+            }
+        }
+        else
+        {
+            Arrays.fill(hashTable, 0L);
         }
-        return null;
+        generation = 0;
     }
 }
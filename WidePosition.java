@@ -0,0 +1,489 @@
+
+/**
+ * A Connect-4 position on a board of any size up to 128 cells including an empty cell on top of every
+ * column, such as 8x7 or 9x7, stored as two longs
+ *
+ * The bits are laid out like Position, one column of rows + 1 bits after another, with lo holding bits
+ * 0 to 63 and hi holding bits 64 to 127. Shifts and additions carry from lo into hi, so a column can
+ * span both longs. The standard 7x6 board should use Position, which fits in one long and is faster;
+ * this class is only for the sizes that do not fit
+ *
+ * The winning cells computed by the last call are kept in fields instead of being returned, so nothing
+ * is allocated after the position is created
+ *
+ *  @author Neil Kakhandiki
+ *  @version October 18, 2026
+ */
+public class WidePosition
+{
+    public static final int MAX_BITS = 2 * Long.SIZE;
+
+    private int cols;
+    private int rows;
+    private long bottomLo;
+    private long bottomHi;
+    private long boardLo;
+    private long boardHi;
+    private long[] columnLo;
+    private long[] columnHi;
+
+    private long positionLo;
+    private long positionHi;
+    private long maskLo;
+    private long maskHi;
+    private int moves;
+    private int[] heights;
+    private int[] history;
+    private long winLo;
+    private long winHi;
+
+    /**
+     * Creates a new empty WidePosition
+     * @param cols number of columns, at least 4
+     * @param rows number of rows, at least 4
+     */
+    public WidePosition(int cols, int rows)
+    {
+        if (cols < 4 || rows < 4 || cols * (rows + 1) > MAX_BITS || 3 * (rows + 2) >= Long.SIZE)
+        {
+            throw new IllegalArgumentException("Board size " + cols + "x" + rows + " is not supported");
+        }
+        this.cols = cols;
+        this.rows = rows;
+        columnLo = new long[cols];
+        columnHi = new long[cols];
+        for (int col = 0; col < cols; col++)
+        {
+            for (int row = 0; row < rows; row++)
+            {
+                int bit = col * (rows + 1) + row;
+                if (bit < Long.SIZE)
+                {
+                    columnLo[col] |= 1L << bit;
+                }
+                else
+                {
+                    columnHi[col] |= 1L << (bit - Long.SIZE);
+                }
+            }
+            boardLo |= columnLo[col];
+            boardHi |= columnHi[col];
+            bottomLo |= columnLo[col] & -columnLo[col]; // the lowest bit of the column
+            if (columnLo[col] == 0)
+            {
+                bottomHi |= columnHi[col] & -columnHi[col];
+            }
+        }
+        heights = new int[cols];
+        history = new int[cols * rows];
+    }
+
+    /**
+     * Creates a copy of another WidePosition so it can be searched without changing the original
+     * @param other position to copy
+     */
+    public WidePosition(WidePosition other)
+    {
+        cols = other.cols;
+        rows = other.rows;
+        bottomLo = other.bottomLo;
+        bottomHi = other.bottomHi;
+        boardLo = other.boardLo;
+        boardHi = other.boardHi;
+        columnLo = other.columnLo;
+        columnHi = other.columnHi;
+        positionLo = other.positionLo;
+        positionHi = other.positionHi;
+        maskLo = other.maskLo;
+        maskHi = other.maskHi;
+        moves = other.moves;
+        heights = other.heights.clone();
+        history = other.history.clone();
+    }
+
+    /**
+     * Gets the number of columns
+     * @return the width of the board
+     */
+    public int getCols()
+    {
+        return cols;
+    }
+
+    /**
+     * Gets the number of rows
+     * @return the height of the board
+     */
+    public int getRows()
+    {
+        return rows;
+    }
+
+    /**
+     * Gets the number of cells
+     * @return the area of the board
+     */
+    public int getArea()
+    {
+        return cols * rows;
+    }
+
+    /**
+     * Returns a boolean value if a column is playable
+     * @param col to check
+     * @return boolean if the column is not full
+     */
+    public boolean canPlay(int col)
+    {
+        return heights[col] < rows;
+    }
+
+    /**
+     * Plays a piece in a column, which must be playable
+     * @param col to drop a piece in
+     */
+    public void play(int col)
+    {
+        int bit = col * (rows + 1) + heights[col];
+        positionLo ^= maskLo; // switches to the other player's pieces
+        positionHi ^= maskHi;
+        if (bit < Long.SIZE)
+        {
+            maskLo |= 1L << bit;
+        }
+        else
+        {
+            maskHi |= 1L << (bit - Long.SIZE);
+        }
+        heights[col]++;
+        history[moves] = col;
+        moves++;
+    }
+
+    /**
+     * Plays a sequence of columns numbered from 1, such as "4453", stopping at the first column that
+     * cannot be played or that would win the game
+     * @param sequence of columns
+     * @return the number of moves played
+     */
+    public int play(String sequence)
+    {
+        for (int i = 0; i < sequence.length(); i++)
+        {
+            int col = sequence.charAt(i) - '1';
+            if (col < 0 || col >= cols || !canPlay(col) || isWinningMove(col))
+            {
+                return i;
+            }
+            play(col);
+        }
+        return sequence.length();
+    }
+
+    /**
+     * Undoes the previous move
+     */
+    public void undo()
+    {
+        moves--;
+        int col = history[moves];
+        heights[col]--;
+        int bit = col * (rows + 1) + heights[col];
+        if (bit < Long.SIZE)
+        {
+            maskLo ^= 1L << bit;
+        }
+        else
+        {
+            maskHi ^= 1L << (bit - Long.SIZE);
+        }
+        positionLo ^= maskLo;
+        positionHi ^= maskHi;
+    }
+
+    /**
+     * Checks if playing a column wins the game for the player to move
+     * @param col to check, which must be playable
+     * @return boolean if the move wins
+     */
+    public boolean isWinningMove(int col)
+    {
+        computeWinning(positionLo, positionHi, maskLo, maskHi);
+        int bit = col * (rows + 1) + heights[col];
+        if (bit < Long.SIZE)
+        {
+            return (winLo & (1L << bit)) != 0;
+        }
+        return (winHi & (1L << (bit - Long.SIZE))) != 0;
+    }
+
+    /**
+     * Checks if the player to move can win with their next move
+     * @return boolean if there is a winning move
+     */
+    public boolean canWinNext()
+    {
+        computeWinning(positionLo, positionHi, maskLo, maskHi);
+        long possibleLo = possibleLo();
+        return (winLo & possibleLo) != 0 || (winHi & possibleHi(possibleLo)) != 0;
+    }
+
+    /**
+     * Gets the columns that can be played without letting the opponent win on their next move
+     * If the opponent has one winning cell that can be played, blocking it is the only move. If they have
+     * two, every move loses. A cell directly under an opponent's winning cell is never returned
+     * @return bitmap with bit col set for each non-losing column, or 0 if every move loses
+     */
+    public int possibleNonLosingCols()
+    {
+        computeWinning(positionLo ^ maskLo, positionHi ^ maskHi, maskLo, maskHi);
+        long possibleLo = possibleLo();
+        long possibleHi = possibleHi(possibleLo);
+        long forcedLo = possibleLo & winLo;
+        long forcedHi = possibleHi & winHi;
+        if ((forcedLo | forcedHi) != 0)
+        {
+            if (Long.bitCount(forcedLo) + Long.bitCount(forcedHi) > 1) // two threats that cannot both be blocked
+            {
+                return 0;
+            }
+            possibleLo = forcedLo;
+            possibleHi = forcedHi;
+        }
+        possibleLo &= ~((winLo >>> 1) | (winHi << (Long.SIZE - 1)));
+        possibleHi &= ~(winHi >>> 1);
+        int result = 0;
+        for (int col = 0; col < cols; col++)
+        {
+            if (((possibleLo & columnLo[col]) | (possibleHi & columnHi[col])) != 0)
+            {
+                result |= 1 << col;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Scores a move by the number of winning cells the player to move has after playing it
+     * @param col to play, which must be playable
+     * @return the number of winning cells
+     */
+    public int moveScore(int col)
+    {
+        int bit = col * (rows + 1) + heights[col];
+        long lo = positionLo;
+        long hi = positionHi;
+        if (bit < Long.SIZE)
+        {
+            lo |= 1L << bit;
+        }
+        else
+        {
+            hi |= 1L << (bit - Long.SIZE);
+        }
+        computeWinning(lo, hi, maskLo, maskHi);
+        return Long.bitCount(winLo) + Long.bitCount(winHi);
+    }
+
+    /**
+     * Gets the low half of the cells a piece can be played in, one per column that is not full
+     * @return bits 0 to 63 of the playable cells
+     */
+    private long possibleLo()
+    {
+        return (maskLo + bottomLo) & boardLo;
+    }
+
+    /**
+     * Gets the high half of the cells a piece can be played in, adding the carry out of the low half
+     * @param possibleLo the low half from possibleLo()
+     * @return bits 64 to 127 of the playable cells
+     */
+    private long possibleHi(long possibleLo)
+    {
+        long carry = Long.compareUnsigned(maskLo + bottomLo, maskLo) < 0 ? 1 : 0;
+        return (maskHi + bottomHi + carry) & boardHi;
+    }
+
+    /**
+     * Finds the empty cells that would complete four in a row for a player and keeps them in winLo
+     * and winHi
+     * @param lo bits 0 to 63 of the player's pieces
+     * @param hi bits 64 to 127 of the player's pieces
+     * @param mLo bits 0 to 63 of every piece
+     * @param mHi bits 64 to 127 of every piece
+     */
+    private void computeWinning(long lo, long hi, long mLo, long mHi)
+    {
+        // vertical
+        long resultLo = (lo << 1) & (lo << 2) & (lo << 3);
+        long resultHi = shlHi(lo, hi, 1) & shlHi(lo, hi, 2) & shlHi(lo, hi, 3);
+
+        // horizontal and both diagonals
+        for (int shift = rows; shift <= rows + 2; shift++)
+        {
+            long left1Lo = lo << shift;
+            long left2Lo = lo << 2 * shift;
+            long left3Lo = lo << 3 * shift;
+            long right1Lo = shrLo(lo, hi, shift);
+            long right2Lo = shrLo(lo, hi, 2 * shift);
+            long right3Lo = shrLo(lo, hi, 3 * shift);
+            resultLo |= (left1Lo & left2Lo & (left3Lo | right1Lo)) | (right1Lo & right2Lo & (left1Lo | right3Lo));
+
+            long left1Hi = shlHi(lo, hi, shift);
+            long left2Hi = shlHi(lo, hi, 2 * shift);
+            long left3Hi = shlHi(lo, hi, 3 * shift);
+            long right1Hi = hi >>> shift;
+            long right2Hi = hi >>> 2 * shift;
+            long right3Hi = hi >>> 3 * shift;
+            resultHi |= (left1Hi & left2Hi & (left3Hi | right1Hi)) | (right1Hi & right2Hi & (left1Hi | right3Hi));
+        }
+        winLo = resultLo & (boardLo ^ mLo);
+        winHi = resultHi & (boardHi ^ mHi);
+    }
+
+    /**
+     * Shifts a 128 bit value left and returns the high half
+     * @param lo bits 0 to 63
+     * @param hi bits 64 to 127
+     * @param shift from 1 to 63
+     * @return bits 64 to 127 of the shifted value
+     */
+    private static long shlHi(long lo, long hi, int shift)
+    {
+        return (hi << shift) | (lo >>> (Long.SIZE - shift));
+    }
+
+    /**
+     * Shifts a 128 bit value right and returns the low half
+     * @param lo bits 0 to 63
+     * @param hi bits 64 to 127
+     * @param shift from 1 to 63
+     * @return bits 0 to 63 of the shifted value
+     */
+    private static long shrLo(long lo, long hi, int shift)
+    {
+        return (lo >>> shift) | (hi << (Long.SIZE - shift));
+    }
+
+    /**
+     * Checks if a player has four in a row
+     * @param player - 0 for the first player or 1 for the second player
+     * @return boolean if the player has won
+     */
+    public boolean isWin(int player)
+    {
+        long lo = positionLo;
+        long hi = positionHi;
+        if ((moves & 1) != player)
+        {
+            lo ^= maskLo;
+            hi ^= maskHi;
+        }
+        for (int shift = 1; shift <= rows + 2; shift = (shift == 1 ? rows : shift + 1))
+        {
+            long pairLo = lo & shrLo(lo, hi, shift);
+            long pairHi = hi & (hi >>> shift);
+            if (((pairLo & shrLo(pairLo, pairHi, 2 * shift)) | (pairHi & (pairHi >>> 2 * shift))) != 0)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets a hash of the 128 bit position + mask key mixed into 63 bits, which chooses a slot of a table
+     * Unlike Position.getKey() it is not unique, so a table must also compare getKeyLo() and getKeyHi()
+     * @return hash of the board position
+     */
+    public long getKey()
+    {
+        long keyLo = getKeyLo();
+        long keyHi = getKeyHi();
+        long hash = keyLo * 0x9E3779B97F4A7C15L + keyHi;
+        hash ^= hash >>> 29;
+        hash *= 0xBF58476D1CE4E5B9L;
+        hash ^= hash >>> 32;
+        return hash & Long.MAX_VALUE;
+    }
+
+    /**
+     * Gets the low long of the position + mask key, which is unique together with getKeyHi()
+     * @return bits 0 to 63 of the key
+     */
+    public long getKeyLo()
+    {
+        return positionLo + maskLo;
+    }
+
+    /**
+     * Gets the high long of the position + mask key, including the carry out of the low long
+     * @return bits 64 to 127 of the key
+     */
+    public long getKeyHi()
+    {
+        long keyLo = positionLo + maskLo;
+        long carry = Long.compareUnsigned(keyLo, positionLo) < 0 ? 1 : 0;
+        return positionHi + maskHi + carry;
+    }
+
+    /**
+     * Gets the number of moves played
+     * @return the number of moves
+     */
+    public int getMoves()
+    {
+        return moves;
+    }
+
+    /**
+     * Checks if the board is full
+     * @return boolean if every cell has a piece
+     */
+    public boolean isFull()
+    {
+        return moves >= cols * rows;
+    }
+
+    /**
+     * Gets the player with a piece in a cell
+     * @param col of the cell
+     * @param row of the cell, counting from the bottom
+     * @return 0 for the first player, 1 for the second player, or -1 if the cell is empty
+     */
+    public int getCell(int col, int row)
+    {
+        if (row >= heights[col])
+        {
+            return -1;
+        }
+        int bit = col * (rows + 1) + row;
+        long cell = bit < Long.SIZE ? (positionLo >>> bit) : (positionHi >>> (bit - Long.SIZE));
+        boolean current = (cell & 1) != 0; // the piece belongs to the player to move
+        return current == ((moves & 1) == 0) ? 0 : 1;
+    }
+
+    /**
+     * Returns the board as text, X for the first player and O for the second
+     * @return the rows of the board from top to bottom and the column numbers
+     */
+    public String toString()
+    {
+        StringBuilder result = new StringBuilder();
+        for (int row = rows - 1; row >= 0; row--)
+        {
+            for (int col = 0; col < cols; col++)
+            {
+                int player = getCell(col, row);
+                result.append(player < 0 ? '.' : player == 0 ? 'X' : 'O').append(' ');
+            }
+            result.append('\n');
+        }
+        for (int col = 1; col <= cols; col++)
+        {
+            result.append(col).append(' ');
+        }
+        return result.toString();
+    }
+}
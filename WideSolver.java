@@ -0,0 +1,363 @@
+import java.util.Arrays;
+
+/**
+ * Solves a WidePosition on a board that is larger than the standard 7x6 board, such as 8x7 or 9x7
+ *
+ * The search is the same as BoardSolver: negamax with alpha beta pruning, a transposition table, only
+ * non-losing moves, moves sorted by the transposition table move, the winning cells they create and the
+ * killer move, null-window searches, and a null-window test before scoring each root column after the
+ * first. BoardSolver stays specialised for the 7x6 board, so it is not slowed down by the two-long board
+ * Positions are stored in a WideTable, which keeps their full key, since the partial keys of a
+ * TranspositionTable only identify the positions of the 7x6 board exactly
+ *
+ *  @author Neil Kakhandiki
+ *  @version October 18, 2026
+ */
+public class WideSolver
+{
+    public static final int TABLE_COLS = 7; // columns the transposition table can store as a best move
+
+    private int cols;
+    private int rows;
+    private int area;
+    private int[] moveOrder;
+    private WideTable transTable;
+    private long nodeCount;
+    private int[][] sortedCols;
+    private int[][] sortedScores;
+    private int[] killers;
+
+    /**
+     * Create a new WideSolver object with a transposition table of DEFAULT_MEGABYTES
+     * @param cols number of columns of the board
+     * @param rows number of rows of the board
+     */
+    public WideSolver(int cols, int rows)
+    {
+        this(cols, rows, TranspositionTable.DEFAULT_MEGABYTES);
+    }
+
+    /**
+     * Create a new WideSolver object with a transposition table limited to a memory budget
+     * @param cols number of columns of the board
+     * @param rows number of rows of the board
+     * @param megabytes of memory for the transposition table
+     */
+    public WideSolver(int cols, int rows, int megabytes)
+    {
+        this.cols = cols;
+        this.rows = rows;
+        area = cols * rows;
+        transTable = new WideTable(megabytes);
+        moveOrder = new int[cols];
+        for (int i = 0; i < cols; i++)
+        {
+            // center column first, then alternating outwards starting on the right, like MOVE_ORDER
+            int offset = (i + 1) / 2;
+            moveOrder[i] = (cols - 1) / 2 + (i % 2 == 1 ? offset : -offset);
+        }
+        sortedCols = new int[area][cols];
+        sortedScores = new int[area][cols];
+        killers = new int[area];
+        Arrays.fill(killers, -1);
+    }
+
+    /**
+     * Gets the order columns are searched in when nothing else ranks them
+     * @return columns from the center outwards
+     */
+    public int[] getMoveOrder()
+    {
+        return moveOrder.clone();
+    }
+
+    /**
+     * Gets the number of positions searched
+     * @return the node count
+     */
+    public long getNodeCount()
+    {
+        return nodeCount;
+    }
+
+    /**
+     * Sets the node count back to 0
+     */
+    public void resetNodeCount()
+    {
+        nodeCount = 0;
+    }
+
+    /**
+     * Clears the transposition table, the killer moves and the node count, so the next search starts cold
+     */
+    public void reset()
+    {
+        transTable.reset();
+        Arrays.fill(killers, -1);
+        nodeCount = 0;
+    }
+
+    /**
+     * Returns the score of a given board position using the negamax algorithm with alpha beta pruning and
+     * transposition tables
+     * @param position of the board
+     * @param alpha lower bound
+     * @param beta upper bound
+     * @return the score of a board position
+     */
+    public int negamax(WidePosition position, int alpha, int beta)
+    {
+        long nodesBefore = nodeCount;
+        nodeCount++;
+
+        // checks if a player can win on next move
+        if (position.canWinNext())
+        {
+            return (area + 1 - position.getMoves()) / 2;
+        }
+
+        // only moves that do not give the opponent a win are searched
+        int next = position.possibleNonLosingCols();
+        if (next == 0)
+        {
+            return -(area - position.getMoves()) / 2; // the opponent wins on their next move
+        }
+
+        // checks for draw game, since neither player can win with the last two pieces
+        if (position.getMoves() >= area - 2)
+        {
+            return 0;
+        }
+
+        // the opponent cannot win on their next move, so the score is at least min
+        int min = -(area - 2 - position.getMoves()) / 2;
+        if (alpha < min)
+        {
+            alpha = min;
+            if (alpha >= beta) // pruning
+            {
+                return alpha;
+            }
+        }
+
+        // the current player cannot win on this move, so the score is at most max
+        int max = (area - 1 - position.getMoves()) / 2;
+        if (beta > max)
+        {
+            beta = max;
+            if (alpha >= beta) // pruning
+            {
+                return beta;
+            }
+        }
+
+        int alphaOrig = alpha;
+        int ttMove = -1;
+        int ttEntry = transTable.get(position);
+        if (ttEntry != 0)
+        {
+            // sets alpha or beta to the lower bound or upper bound, or returns the value
+            int ttFlag = TranspositionTable.getFlag(ttEntry);
+            int ttValue = TranspositionTable.getValue(ttEntry);
+            ttMove = TranspositionTable.getMove(ttEntry);
+            if (ttFlag == TranspositionTable.EXACT)
+            {
+                return ttValue;
+            }
+            else if (ttFlag == TranspositionTable.LOWER)
+            {
+                alpha = Math.max(alpha, ttValue);
+            }
+            else if (ttFlag == TranspositionTable.UPPER)
+            {
+                beta = Math.min(beta, ttValue);
+            }
+
+            if (alpha >= beta) // pruning
+            {
+                return ttValue;
+            }
+        }
+
+        int ply = position.getMoves();
+        int[] moves = sortedCols[ply];
+        int count = sortMoves(position, next, ttMove);
+
+        int score = Integer.MIN_VALUE;
+        int bestCol = -1;
+        // compute the score of each position
+        for (int i = 0; i < count; i++)
+        {
+            position.play(moves[i]);
+            int childScore = -negamax(position, -beta, -alpha);
+            position.undo();
+            if (childScore > score)
+            {
+                score = childScore;
+                bestCol = moves[i];
+            }
+            alpha = Math.max(alpha, score);
+            if (alpha >= beta) // pruning
+            {
+                killers[ply] = moves[i];
+                break;
+            }
+        }
+
+        // checks if the flag is an upper bound, lower bound, or exact value
+        int flag = 0;
+        if (score <= alphaOrig)
+        {
+            flag = TranspositionTable.UPPER;
+        }
+        else if (score >= beta)
+        {
+            flag = TranspositionTable.LOWER;
+        }
+        else
+        {
+            flag = TranspositionTable.EXACT;
+        }
+
+        if (bestCol >= TABLE_COLS)
+        {
+            bestCol = -1;
+        }
+        int work = Long.SIZE - Long.numberOfLeadingZeros(nodeCount - nodesBefore); // log2 of the nodes searched
+        transTable.put(position, flag, score, bestCol, work); // adds entry to hashtable
+        return score;
+    }
+
+    /**
+     * Sorts the moves of a position into sortedCols for its ply, best first
+     * The transposition table move goes first, then moves are ranked by the winning cells they create,
+     * then the killer move. Ties keep the move order
+     * @param position of the board
+     * @param next bitmap of the columns to sort
+     * @param ttMove best column from the transposition table, or -1
+     * @return the number of moves
+     */
+    private int sortMoves(WidePosition position, int next, int ttMove)
+    {
+        int ply = position.getMoves();
+        int[] moves = sortedCols[ply];
+        int[] scores = sortedScores[ply];
+        int count = 0;
+        for (int col : moveOrder)
+        {
+            if ((next & (1 << col)) != 0)
+            {
+                int score = Integer.MAX_VALUE;
+                if (col != ttMove)
+                {
+                    score = position.moveScore(col) * 2;
+                    if (col == killers[ply])
+                    {
+                        score++;
+                    }
+                }
+                // insertion sort, placing the move after every move with an equal or higher score
+                int i = count;
+                while (i > 0 && scores[i - 1] < score)
+                {
+                    moves[i] = moves[i - 1];
+                    scores[i] = scores[i - 1];
+                    i--;
+                }
+                moves[i] = col;
+                scores[i] = score;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the exact score of a board position with null-window calls to negamax()
+     * @param position of the board
+     * @return the score of a board position
+     */
+    public int nullWindowSearch(WidePosition position)
+    {
+        return nullWindowSearch(position, -(area - position.getMoves()) / 2, (area + 1 - position.getMoves()) / 2);
+    }
+
+    /**
+     * Returns the exact score of a board position that is already known to be between min and max
+     * @param position of the board
+     * @param min lowest possible score
+     * @param max highest possible score
+     * @return the score of a board position
+     */
+    public int nullWindowSearch(WidePosition position, int min, int max)
+    {
+        while (min < max)
+        {
+            int med = min + (max - min) / 2;
+            // moves the guess towards 0 because most positions are decided by a small margin
+            if (med <= 0 && min / 2 < med)
+            {
+                med = min / 2;
+            }
+            else if (med >= 0 && max / 2 > med)
+            {
+                med = max / 2;
+            }
+            int score = negamax(position, med, med + 1);
+            if (score <= med)
+            {
+                max = score;
+            }
+            else
+            {
+                min = score;
+            }
+        }
+        return min;
+    }
+
+    /**
+     * Returns the best column to play, scoring each column exactly only if a null-window test shows it
+     * beats the best column so far
+     * @param position of the board
+     * @return bestCol of position, or -1 if the board is full
+     */
+    public int solve(WidePosition position)
+    {
+        int bestScore = Integer.MIN_VALUE;
+        int bestCol = -1;
+        for (int col : moveOrder)
+        {
+            if (position.canPlay(col))
+            {
+                if (position.isWinningMove(col))
+                {
+                    return col;
+                }
+                int score = 0;
+                position.play(col);
+                if (bestCol < 0)
+                {
+                    score = -nullWindowSearch(position);
+                }
+                else
+                {
+                    int value = negamax(position, -bestScore - 1, -bestScore); // tests if the column is better
+                    score = -value;
+                    if (value < -bestScore)
+                    {
+                        score = -nullWindowSearch(position, -(area - position.getMoves()) / 2, value);
+                    }
+                }
+                position.undo();
+                if (bestCol < 0 || score > bestScore)
+                {
+                    bestScore = score;
+                    bestCol = col;
+                }
+            }
+        }
+        return bestCol;
+    }
+}
@@ -0,0 +1,120 @@
+import java.util.Arrays;
+
+/**
+ *  A transposition table for WideSolver that keeps the full key of every WidePosition it stores
+ *
+ *  TranspositionTable keeps only 37 bits of each key, which together with the bucket identify a 49 bit
+ *  key of the 7x6 board exactly, but not the key of a larger board. Here each slot holds both longs of
+ *  the position + mask key next to its entry, so an entry is only ever returned for the position that
+ *  stored it. The hash from WidePosition.getKey() only chooses the bucket. Slots are grouped in buckets
+ *  of BUCKET, and when a bucket is full the entry that took the least work to find is replaced
+ *  Entries are packed like the entries of TranspositionTable and read with its getFlag(), getValue(),
+ *  getMove() and getWork()
+ *
+ *  @author Neil Kakhandiki
+ *  @version October 18, 2026
+ */
+public class WideTable
+{
+    public static final int BUCKET = 4;
+    public static final int SLOT_BYTES = 2 * Long.BYTES + Integer.BYTES;
+    public static final int MAX_WORK = TranspositionTable.MAX_WORK;
+
+    private long[] keys; // the low and high long of the key of each slot
+    private int[] entries; // the packed entry of each slot, or 0 if the slot is empty
+    private int size;
+
+    /**
+     * Create a new WideTable object with a memory budget
+     * @param megabytes of memory the table can use, at least 1
+     */
+    public WideTable(int megabytes)
+    {
+        if (megabytes < 1)
+        {
+            throw new IllegalArgumentException("Wide table needs at least 1 megabyte");
+        }
+        long buckets = (long) megabytes * 1024 * 1024 / (BUCKET * SLOT_BYTES);
+        size = (int) Math.min(buckets, (Integer.MAX_VALUE - 8) / (2 * BUCKET));
+        keys = new long[size * BUCKET * 2];
+        entries = new int[size * BUCKET];
+    }
+
+    /**
+     * Returns the number of slots in the table
+     * @return size of the table
+     */
+    public int getSize()
+    {
+        return size * BUCKET;
+    }
+
+    /**
+     * Puts a key, flag, value entry in the table
+     * An entry for the same key is replaced, then an empty slot is used, and otherwise the slot with the
+     * least work is replaced
+     * @param position whose key to put
+     * @param flag EXACT, LOWER or UPPER
+     * @param value to put
+     * @param move best column found, from 0 to 6, or -1 for none
+     * @param work log2 of the number of nodes searched to find the entry, up to MAX_WORK
+     */
+    public void put(WidePosition position, int flag, int value, int move, int work)
+    {
+        long keyLo = position.getKeyLo();
+        long keyHi = position.getKeyHi();
+        int start = (int) (position.getKey() % size) * BUCKET;
+        int victim = start;
+        int lowest = Integer.MAX_VALUE;
+        for (int index = start; index < start + BUCKET; index++)
+        {
+            if (entries[index] == 0 || (keys[2 * index] == keyLo && keys[2 * index + 1] == keyHi))
+            {
+                victim = index;
+                break;
+            }
+            int priority = TranspositionTable.getWork(entries[index]);
+            if (priority < lowest)
+            {
+                lowest = priority;
+                victim = index;
+            }
+        }
+        keys[2 * victim] = keyLo;
+        keys[2 * victim + 1] = keyHi;
+        entries[victim] = (Math.min(work, MAX_WORK) << 13) | ((move + 1) << 10) | (flag << 8) | (value & 0xFF);
+    }
+
+    /**
+     * Returns the entry of a position, packed as an int to avoid allocating
+     * @param position whose entry to get
+     * @return the entry or 0 if there is no entry
+     */
+    public int get(WidePosition position)
+    {
+        long keyLo = position.getKeyLo();
+        long keyHi = position.getKeyHi();
+        int start = (int) (position.getKey() % size) * BUCKET;
+        for (int index = start; index < start + BUCKET; index++)
+        {
+            if (entries[index] == 0)
+            {
+                return 0; // slots fill from the front and are never emptied, so the key is not in the bucket
+            }
+            if (keys[2 * index] == keyLo && keys[2 * index + 1] == keyHi)
+            {
+                return entries[index];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Removes every entry from the table
+     */
+    public void reset()
+    {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(entries, 0);
+    }
+}
@@ -0,0 +1,176 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ *  Method handles to the engine classes for the JMH benchmarks
+ *
+ *  JMH only runs benchmarks in a named package, and Java code in a named package cannot refer to the
+ *  classes of the unnamed package the engine is in. The benchmarks call the engine through these
+ *  handles instead, with every object parameter and result typed as Object. The handles are static
+ *  final, so the JIT treats them as constants and inlines the engine method as if it were called directly
+ *
+ *  @author Neil Kakhandiki
+ *  @version October 18, 2026
+ */
+public class Engine
+{
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    public static final MethodHandle NEW_POSITION = constructor("Position");
+    public static final MethodHandle PLAY = virtual("Position", "play", void.class, int.class);
+    public static final MethodHandle UNDO = virtual("Position", "undo", void.class);
+    public static final MethodHandle RESET_POSITION = virtual("Position", "reset", void.class);
+    public static final MethodHandle GET_KEY = virtual("Position", "getKey", long.class);
+    public static final MethodHandle GET_POSITION = virtual("Position", "getPosition", long.class);
+    public static final MethodHandle GET_MASK = virtual("Position", "getMask", long.class);
+    public static final MethodHandle ALIGNMENT = statik("Position", "alignment", boolean.class, long.class);
+    public static final MethodHandle WINNING_POSITION = statik("Position", "computeWinningPosition", long.class,
+        long.class, long.class);
+    public static final MethodHandle FROM_MOVES = statik("PositionCodec", "fromMoves", type("Position"),
+        String.class);
+    public static final MethodHandle NEW_TABLE = constructor("TranspositionTable");
+    public static final MethodHandle TABLE_PUT = virtual("TranspositionTable", "put", void.class, long.class,
+        int.class, int.class, int.class, int.class);
+    public static final MethodHandle TABLE_GET = virtual("TranspositionTable", "get", int.class, long.class);
+    public static final MethodHandle WRITE_FILE = statik("PositionFile", "write", void.class,
+        java.nio.file.Path.class, long[].class, int.class);
+    public static final MethodHandle OPEN_FILE = statik("PositionFile", "open", type("PositionFile"),
+        java.nio.file.Path.class);
+    public static final MethodHandle FILE_GET = virtual("PositionFile", "get", void.class, int.class,
+        type("Position"));
+    public static final MethodHandle NEW_SOLVER = constructor("BoardSolver");
+    public static final MethodHandle RESET_SOLVER = virtual("BoardSolver", "reset", void.class);
+    public static final MethodHandle NULL_WINDOW_SEARCH = virtual("BoardSolver", "nullWindowSearch", int.class,
+        type("Position"));
+    public static final MethodHandle RANDOM_GAMES = statik("Benchmark", "randomGames", int[][].class, int.class);
+    public static final MethodHandle END_GAME = field("Benchmark", "END_GAME");
+    public static final MethodHandle MIDDLE_GAME = field("Benchmark", "MIDDLE_GAME");
+    public static final MethodHandle EARLY_GAME = field("Benchmark", "EARLY_GAME");
+
+    /**
+     * Gets an engine class by name
+     * @param name of the class in the unnamed package
+     * @return the class
+     */
+    private static Class<?> type(String name)
+    {
+        try
+        {
+            return Class.forName(name);
+        }
+        catch (ClassNotFoundException e)
+        {
+            throw new IllegalStateException("Engine class " + name + " is not on the class path", e);
+        }
+    }
+
+    /**
+     * Changes every engine class in the type of a handle to Object, so callers can name the type
+     * @param handle to change
+     * @return the handle with Object in place of each engine class
+     */
+    private static MethodHandle erase(MethodHandle handle)
+    {
+        MethodType type = handle.type();
+        for (int i = 0; i < type.parameterCount(); i++)
+        {
+            if (isEngine(type.parameterType(i)))
+            {
+                type = type.changeParameterType(i, Object.class);
+            }
+        }
+        if (isEngine(type.returnType()))
+        {
+            type = type.changeReturnType(Object.class);
+        }
+        return handle.asType(type);
+    }
+
+    /**
+     * Checks if a type is a class of the engine
+     * @param type to check
+     * @return boolean if it is a class in the unnamed package
+     */
+    private static boolean isEngine(Class<?> type)
+    {
+        return !type.isPrimitive() && !type.isArray() && type.getPackageName().isEmpty();
+    }
+
+    /**
+     * Finds the no argument constructor of an engine class
+     * @param name of the class
+     * @return handle of type ()Object
+     */
+    private static MethodHandle constructor(String name)
+    {
+        try
+        {
+            return erase(LOOKUP.findConstructor(type(name), MethodType.methodType(void.class)));
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Finds an instance method of an engine class
+     * @param name of the class
+     * @param method name of the method
+     * @param result type of the method
+     * @param parameters types of the method
+     * @return handle taking the object as its first parameter
+     */
+    private static MethodHandle virtual(String name, String method, Class<?> result, Class<?>... parameters)
+    {
+        try
+        {
+            return erase(LOOKUP.findVirtual(type(name), method, MethodType.methodType(result, parameters)));
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Finds a static method of an engine class
+     * @param name of the class
+     * @param method name of the method
+     * @param result type of the method
+     * @param parameters types of the method
+     * @return the handle
+     */
+    private static MethodHandle statik(String name, String method, Class<?> result, Class<?>... parameters)
+    {
+        try
+        {
+            return erase(LOOKUP.findStatic(type(name), method, MethodType.methodType(result, parameters)));
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Finds the getter of a static String[] field of an engine class
+     * @param name of the class
+     * @param field name of the field
+     * @return handle of type ()String[]
+     */
+    private static MethodHandle field(String name, String field)
+    {
+        try
+        {
+            return LOOKUP.findStaticGetter(type(name), field, String[].class);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package benchmarks;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ *  JMH benchmarks of the operations the search makes at every node, in nanoseconds per operation
+ *
+ *  Move make/undo, win detection and the transposition table run over random games from the seed of the
+ *  Benchmark class, and reading positions runs over a temporary position file of the same games. Each
+ *  invocation works on the next game, position or key in turn, so the JIT cannot fold the inputs away
+ *
+ *  @author Neil Kakhandiki
+ *  @version October 18, 2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class PositionBenchmark
+{
+    public static final int GAMES = 1000;
+    public static final int AREA = 42;
+    public static final int KEYS = 1 << 20;
+
+    private int[][] games;
+    private long[] positions;
+    private long[] masks;
+    private long[] keys;
+    private Object position;
+    private Object table;
+    private Path temp;
+    private Object file;
+    private int next;
+
+    /**
+     * Plays the random games and fills the table and position file
+     * @throws Throwable if an engine method throws
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable
+    {
+        games = (int[][]) Engine.RANDOM_GAMES.invokeExact(GAMES);
+        positions = new long[GAMES * AREA];
+        masks = new long[GAMES * AREA];
+        position = (Object) Engine.NEW_POSITION.invokeExact();
+        int count = 0;
+        for (int[] game : games)
+        {
+            Engine.RESET_POSITION.invokeExact(position);
+            for (int col : game)
+            {
+                Engine.PLAY.invokeExact(position, col);
+                positions[count] = (long) Engine.GET_POSITION.invokeExact(position);
+                masks[count] = (long) Engine.GET_MASK.invokeExact(position);
+                count++;
+            }
+        }
+        Engine.RESET_POSITION.invokeExact(position);
+
+        Random random = new Random(20210513L);
+        keys = new long[KEYS];
+        for (int i = 0; i < KEYS; i++)
+        {
+            keys[i] = random.nextLong() & ((1L << 49) - 1);
+        }
+        table = (Object) Engine.NEW_TABLE.invokeExact();
+        for (int i = 0; i < KEYS; i++)
+        {
+            Engine.TABLE_PUT.invokeExact(table, keys[i], 1, i % 37 - 18, i % 7, i % 20);
+        }
+
+        long[] fileKeys = new long[count];
+        for (int i = 0; i < count; i++)
+        {
+            fileKeys[i] = positions[i] + masks[i];
+        }
+        temp = Files.createTempFile("positions", ".bin");
+        Engine.WRITE_FILE.invokeExact(temp, fileKeys, count);
+        file = (Object) Engine.OPEN_FILE.invokeExact(temp);
+    }
+
+    /**
+     * Deletes the temporary position file
+     * @throws Exception if the file cannot be deleted
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception
+    {
+        Files.deleteIfExists(temp);
+    }
+
+    /**
+     * Plays every move of a game and undoes them
+     * @return the key of the full board
+     * @throws Throwable if an engine method throws
+     */
+    @Benchmark
+    @OperationsPerInvocation(2 * AREA)
+    public long makeUndo() throws Throwable
+    {
+        int[] game = games[next++ % GAMES];
+        for (int col : game)
+        {
+            Engine.PLAY.invokeExact(position, col);
+        }
+        long key = (long) Engine.GET_KEY.invokeExact(position);
+        for (int i = 0; i < game.length; i++)
+        {
+            Engine.UNDO.invokeExact(position);
+        }
+        return key;
+    }
+
+    /**
+     * Checks a position of a random game for four in a row
+     * @return boolean if the pieces have four in a row
+     * @throws Throwable if an engine method throws
+     */
+    @Benchmark
+    public boolean alignment() throws Throwable
+    {
+        return (boolean) Engine.ALIGNMENT.invokeExact(positions[next++ % positions.length]);
+    }
+
+    /**
+     * Finds the winning cells of a position of a random game
+     * @return bitmap of the winning cells
+     * @throws Throwable if an engine method throws
+     */
+    @Benchmark
+    public long winningPosition() throws Throwable
+    {
+        int i = next++ % positions.length;
+        return (long) Engine.WINNING_POSITION.invokeExact(positions[i], masks[i]);
+    }
+
+    /**
+     * Stores a random key in the default sized table
+     * @throws Throwable if an engine method throws
+     */
+    @Benchmark
+    public void tableStore() throws Throwable
+    {
+        int i = next++ & (KEYS - 1);
+        Engine.TABLE_PUT.invokeExact(table, keys[i], 1, i % 37 - 18, i % 7, i % 20);
+    }
+
+    /**
+     * Probes the default sized table for a random key
+     * @return the entry found
+     * @throws Throwable if an engine method throws
+     */
+    @Benchmark
+    public int tableProbe() throws Throwable
+    {
+        return (int) Engine.TABLE_GET.invokeExact(table, keys[next++ & (KEYS - 1)]);
+    }
+
+    /**
+     * Reads a position from the memory-mapped position file
+     * @param blackhole consumes the position
+     * @throws Throwable if an engine method throws
+     */
+    @Benchmark
+    public void positionsRead(Blackhole blackhole) throws Throwable
+    {
+        Engine.FILE_GET.invokeExact(file, next++ % positions.length, position);
+        blackhole.consume((long) Engine.GET_MASK.invokeExact(position));
+    }
+}
@@ -0,0 +1,101 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *  JMH benchmark of full solves of the end-game, middle-game and early-game positions of the Benchmark
+ *  class, in milliseconds per position
+ *
+ *  Each invocation solves the next position of the tier with nullWindowSearch() from an empty table.
+ *  The table is cleared before the invocation, outside the measured time, and a wrong score fails the
+ *  run. Node counts, which do not depend on the machine, are reported by RegressionCheck
+ *
+ *  @author Neil Kakhandiki
+ *  @version October 18, 2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Thread)
+public class SolveBenchmark
+{
+    @Param({"end-game", "middle-game", "early-game"})
+    public String tier;
+
+    private Object solver;
+    private Object[] positions;
+    private int[] scores;
+    private int next;
+
+    /**
+     * Reads the positions of the tier and creates the solver
+     * @throws Throwable if an engine method throws
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable
+    {
+        String[] lines = null;
+        if (tier.equals("end-game"))
+        {
+            lines = (String[]) Engine.END_GAME.invokeExact();
+        }
+        else if (tier.equals("middle-game"))
+        {
+            lines = (String[]) Engine.MIDDLE_GAME.invokeExact();
+        }
+        else
+        {
+            lines = (String[]) Engine.EARLY_GAME.invokeExact();
+        }
+        positions = new Object[lines.length];
+        scores = new int[lines.length];
+        for (int i = 0; i < lines.length; i++)
+        {
+            String[] parts = lines[i].split(" ");
+            positions[i] = (Object) Engine.FROM_MOVES.invokeExact(parts[0]);
+            scores[i] = Integer.parseInt(parts[1]);
+        }
+        solver = (Object) Engine.NEW_SOLVER.invokeExact();
+    }
+
+    /**
+     * Clears the table so every solve starts cold
+     * @throws Throwable if an engine method throws
+     */
+    @Setup(Level.Invocation)
+    public void clearTable() throws Throwable
+    {
+        Engine.RESET_SOLVER.invokeExact(solver);
+    }
+
+    /**
+     * Solves the next position of the tier
+     * @return the score
+     * @throws Throwable if an engine method throws
+     */
+    @Benchmark
+    public int solve() throws Throwable
+    {
+        int i = next++ % positions.length;
+        int score = (int) Engine.NULL_WINDOW_SEARCH.invokeExact(solver, positions[i]);
+        if (score != scores[i])
+        {
+            throw new IllegalStateException("Wrong score " + score + " for " + tier + " position " + i);
+        }
+        return score;
+    }
+}
@@ -0,0 +1,56 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ *  Runs RegressionCheck over the committed baseline in "mvn test", so a solver change that breaks a
+ *  score or grows the node total of a tier by more than NODE_TOLERANCE fails the build
+ *
+ *  Solve times are not checked here, since they depend on the machine running the build. They are
+ *  compared by "java RegressionCheck" against a baseline recorded on the same machine
+ *
+ *  @author Neil Kakhandiki
+ *  @version October 18, 2026
+ */
+public class RegressionCheckTest
+{
+    private static List<String[]> corpus;
+    private static long[] nodes;
+    private static int wrong;
+
+    /**
+     * Solves every position of the committed baseline once
+     * @throws IOException if the baseline cannot be read
+     */
+    @BeforeAll
+    public static void solveCorpus() throws IOException
+    {
+        corpus = RegressionCheck.readBaseline(Paths.get(RegressionCheck.DEFAULT_BASELINE));
+        nodes = new long[corpus.size()];
+        wrong = RegressionCheck.solve(corpus, nodes, null);
+    }
+
+    /**
+     * Checks the solver finds the exact score of every position
+     */
+    @Test
+    public void scoresAreExact()
+    {
+        assertEquals(0, wrong, "wrong scores, printed above");
+    }
+
+    /**
+     * Checks the node total of each tier has not grown by more than NODE_TOLERANCE
+     */
+    @Test
+    public void nodeCountsHaveNotRegressed()
+    {
+        assertTrue(RegressionCheck.compare(corpus, nodes, null, RegressionCheck.NODE_TOLERANCE, 0),
+            "node totals regressed, see the table above");
+    }
+}